@@ -0,0 +1,25 @@
+package org.emergent.gittle.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks with the GC profiler attached, so every result reports the allocation
+ * rate next to throughput and average time. Accepts the usual JMH command line, e.g.
+ * <pre>{@code
+ *   java -jar gittle-benchmarks/target/benchmarks.jar ResolutionBenchmark -p commits=10000
+ * }</pre>
+ */
+public class BenchmarkMain {
+
+  public static void main(String[] args) throws Exception {
+    Options options = new OptionsBuilder()
+        .parent(new CommandLineOptions(args))
+        .addProfiler(GCProfiler.class)
+        .build();
+    new Runner(options).run();
+  }
+}
@@ -0,0 +1,53 @@
+package org.emergent.gittle.benchmarks;
+
+import org.emergent.gittle.core.Config;
+import org.emergent.gittle.core.Resolved;
+import org.emergent.gittle.core.strategy.StrategyFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures rendering a version string from already resolved values.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatternStrategyBenchmark {
+
+  @Param({"%t(-%B)(-%C)(-%S)(+%H)(.%D)", "%t+%h"})
+  String versionPattern;
+
+  private Config config;
+  private Resolved resolved;
+
+  @Setup
+  public void setup() {
+    config = Config.builder().versionPattern(versionPattern).build();
+    resolved = Resolved.builder()
+        .branch("feature/benchmarks")
+        .hash("67550ad6a64fe4e09bf9e36891c09b2f7bdc52f9")
+        .tagVersion("1.2.3")
+        .commits(42)
+        .dirty(true)
+        .build();
+  }
+
+  @Benchmark
+  public String version() {
+    return StrategyFactory.getInstance(config, resolved).version();
+  }
+}
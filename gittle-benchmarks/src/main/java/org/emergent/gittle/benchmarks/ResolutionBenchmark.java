@@ -0,0 +1,144 @@
+package org.emergent.gittle.benchmarks;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.submodule.SubmoduleWalk;
+import org.emergent.gittle.benchmarks.SyntheticRepository.History;
+import org.emergent.gittle.benchmarks.SyntheticRepository.Layout;
+import org.emergent.gittle.benchmarks.SyntheticRepository.Spec;
+import org.emergent.gittle.benchmarks.SyntheticRepository.Tags;
+import org.emergent.gittle.core.Config;
+import org.emergent.gittle.core.Resolved;
+import org.emergent.gittle.core.git.DirtyChecker;
+import org.emergent.gittle.core.git.GitExec;
+import org.emergent.gittle.core.git.JGitBackend;
+import org.emergent.gittle.core.git.NativeGitBackend;
+import org.emergent.gittle.core.git.TagProvider;
+import org.emergent.gittle.core.strategy.StrategyFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures each phase of version resolution against generated repositories.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResolutionBenchmark {
+
+  @Param({"10000", "100000", "1000000"})
+  int commits;
+
+  @Param({"FEW", "MANY"})
+  Tags tags;
+
+  @Param({"LINEAR", "MERGES"})
+  History history;
+
+  @Param({"PACKED", "MAINTAINED"})
+  Layout layout;
+
+  private File dir;
+  private Git git;
+  private ObjectId headId;
+  private RevCommit headCommit;
+  private Config uncached;
+  private Config cached;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    dir = SyntheticRepository.getOrCreate(new Spec(commits, tags, history, layout));
+    git = Git.open(dir);
+    headId = git.getRepository().resolve(Constants.HEAD);
+    try (RevWalk walk = new RevWalk(git.getRepository())) {
+      headCommit = walk.parseCommit(headId);
+    }
+    // pin JGit so a change of the default backend does not silently change what resolve measures
+    uncached = Config.builder().cacheEnabled(false).backend(Config.Backend.JGIT).build();
+    cached = uncached.toBuilder().cacheEnabled(true).build();
+    // populate the persistent cache once so the cached benchmark only measures warm builds
+    StrategyFactory.getInstance(cached, dir).version();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    git.close();
+  }
+
+  @Benchmark
+  public ObjectId openRepository() {
+    return GitExec.execOp(dir, g -> {
+      return g.getRepository().resolve(Constants.HEAD);
+    });
+  }
+
+  @Benchmark
+  public Optional<?> tagMap() {
+    return new TagProvider(uncached.getTagNameRegex(), git).getTag(headCommit);
+  }
+
+  @Benchmark
+  public Resolved historyWalk() throws Exception {
+    return new JGitBackend(uncached, git).walk(headId);
+  }
+
+  @Benchmark
+  public Resolved historyWalkNative() {
+    return new NativeGitBackend(uncached, git).walk(headId);
+  }
+
+  @Benchmark
+  public boolean status() throws Exception {
+    return git.status()
+        .setIgnoreSubmodules(SubmoduleWalk.IgnoreSubmoduleMode.UNTRACKED)
+        .call()
+        .getUncommittedChanges()
+        .isEmpty();
+  }
+
+  @Benchmark
+  public boolean dirtyCheck() throws Exception {
+    return new DirtyChecker(git.getRepository(), Config.DirtyCheck.CONTENT).isDirty();
+  }
+
+  @Benchmark
+  public boolean dirtyCheckStat() throws Exception {
+    return new DirtyChecker(git.getRepository(), Config.DirtyCheck.STAT).isDirty();
+  }
+
+  @Benchmark
+  public boolean dirtyCheckNative() {
+    return new NativeGitBackend(uncached, git).isDirty();
+  }
+
+  @Benchmark
+  public String resolve() {
+    return StrategyFactory.getInstance(uncached, dir).version();
+  }
+
+  @Benchmark
+  public String resolveCached() {
+    return StrategyFactory.getInstance(cached, dir).version();
+  }
+}
@@ -0,0 +1,244 @@
+package org.emergent.gittle.benchmarks;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.ResetCommand;
+import org.eclipse.jgit.internal.storage.file.FileRepository;
+import org.eclipse.jgit.internal.storage.file.PackInserter;
+import org.eclipse.jgit.lib.BatchRefUpdate;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.ConfigConstants;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.NullProgressMonitor;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.lib.TagBuilder;
+import org.eclipse.jgit.lib.TreeFormatter;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.transport.ReceiveCommand;
+import org.emergent.gittle.core.GittleException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates reproducible local repositories for the benchmarks.
+ * <p>
+ * Every repository is derived from its {@link Spec} alone: commit times, branch shapes and tag
+ * placement come from a fixed clock and seed, so two runs on different machines walk exactly the
+ * same history. Generated repositories are kept under {@code target/benchmark-repos} (or the
+ * directory named by the {@code gittle.benchmark.repos} system property) and reused by later runs.
+ */
+public class SyntheticRepository {
+
+  public static final String REPOS_SYSPROP = "gittle.benchmark.repos";
+
+  private static final String COMPLETE_MARKER = "gittle-benchmark-complete";
+  private static final Instant EPOCH = Instant.parse("2020-01-01T00:00:00Z");
+  private static final long SEED = 0x6177_7474_6c65L;
+
+  /**
+   * Number and kind of tags in the repository.
+   */
+  public enum Tags {
+    /** Ten release tags spread over the history. */
+    FEW,
+    /** Two thousand release tags plus as many tags that never match the default tag regex. */
+    MANY
+  }
+
+  /**
+   * Shape of the generated history.
+   */
+  public enum History {
+    /** A single line of commits. */
+    LINEAR,
+    /** A mainline where roughly a fifth of the commits merge in a short-lived side branch. */
+    MERGES
+  }
+
+  /**
+   * On-disk layout of the generated objects.
+   */
+  public enum Layout {
+    /** One pack without a bitmap index or commit-graph. */
+    PACKED,
+    /** Repacked by gc, with reachability bitmaps and a commit-graph. */
+    MAINTAINED
+  }
+
+  public record Spec(int commits, Tags tags, History history, Layout layout) {
+
+    public String name() {
+      return String.format("%d-%s-%s-%s", commits, tags, history, layout).toLowerCase();
+    }
+  }
+
+  /**
+   * Returns the work tree of the repository for {@code spec}, generating it on first use.
+   */
+  public static File getOrCreate(Spec spec) {
+    Path dir = Paths.get(System.getProperty(REPOS_SYSPROP, "target/benchmark-repos"))
+        .toAbsolutePath().resolve(spec.name());
+    Path marker = dir.resolve(Constants.DOT_GIT).resolve(COMPLETE_MARKER);
+    if (Files.exists(marker)) {
+      return dir.toFile();
+    }
+    try {
+      deleteRecursively(dir);
+      Files.createDirectories(dir);
+      generate(spec, dir.toFile());
+      Files.createFile(marker);
+      return dir.toFile();
+    } catch (Exception e) {
+      throw new GittleException("Failed generating benchmark repository " + dir, e);
+    }
+  }
+
+  private static void generate(Spec spec, File workTree) throws Exception {
+    try (Git git = Git.init().setDirectory(workTree).setInitialBranch("main").call()) {
+      FileRepository repository = (FileRepository) git.getRepository();
+      StoredConfig config = repository.getConfig();
+      config.setBoolean(ConfigConstants.CONFIG_GC_SECTION, null, ConfigConstants.CONFIG_KEY_WRITE_COMMIT_GRAPH, true);
+      config.setBoolean(ConfigConstants.CONFIG_CORE_SECTION, null, ConfigConstants.CONFIG_COMMIT_GRAPH, true);
+      config.save();
+
+      Random random = new Random(SEED);
+      List<ObjectId> taggable = new ArrayList<>();
+      ObjectId head;
+      try (PackInserter inserter = repository.getObjectDatabase().newPackInserter()) {
+        inserter.checkExisting(false);
+        ObjectId tree = insertTree(inserter);
+        head = insertHistory(spec, inserter, tree, random, taggable);
+        List<ReceiveCommand> tagCommands = insertTags(spec, inserter, taggable);
+        inserter.flush();
+        updateRefs(repository, head, tagCommands);
+      }
+
+      git.reset().setMode(ResetCommand.ResetType.HARD).setRef(Constants.HEAD).call();
+
+      if (spec.layout() == Layout.MAINTAINED) {
+        git.gc().setAggressive(false).setProgressMonitor(NullProgressMonitor.INSTANCE).call();
+      }
+    }
+  }
+
+  private static ObjectId insertTree(ObjectInserter inserter) throws IOException {
+    byte[] readme = "synthetic benchmark repository\n".getBytes(StandardCharsets.UTF_8);
+    ObjectId blob = inserter.insert(Constants.OBJ_BLOB, readme);
+    TreeFormatter formatter = new TreeFormatter();
+    formatter.append("README", FileMode.REGULAR_FILE, blob);
+    return inserter.insert(formatter);
+  }
+
+  private static ObjectId insertHistory(Spec spec, ObjectInserter inserter, ObjectId tree,
+                                        Random random, List<ObjectId> taggable) throws IOException {
+    long[] clock = {0};
+    ObjectId mainTip = insertCommit(inserter, tree, clock, "root");
+    taggable.add(mainTip);
+    int created = 1;
+    while (created < spec.commits()) {
+      int remaining = spec.commits() - created;
+      if (spec.history() == History.MERGES && remaining > 10 && random.nextInt(5) == 0) {
+        ObjectId sideTip = mainTip;
+        int sideLength = 1 + random.nextInt(8);
+        for (int i = 0; i < sideLength; i++) {
+          sideTip = insertCommit(inserter, tree, clock, "side " + created, sideTip);
+          created++;
+        }
+        mainTip = insertCommit(inserter, tree, clock, "main " + created, mainTip);
+        taggable.add(mainTip);
+        created++;
+        mainTip = insertCommit(inserter, tree, clock, "merge " + created, mainTip, sideTip);
+        created++;
+      } else {
+        mainTip = insertCommit(inserter, tree, clock, "main " + created, mainTip);
+        taggable.add(mainTip);
+        created++;
+      }
+    }
+    return mainTip;
+  }
+
+  private static ObjectId insertCommit(ObjectInserter inserter, ObjectId tree, long[] clock,
+                                       String message, ObjectId... parents) throws IOException {
+    Instant when = EPOCH.plusSeconds(60 * clock[0]++);
+    PersonIdent ident = new PersonIdent("gittle", "gittle@example.com", when, ZoneOffset.UTC);
+    CommitBuilder builder = new CommitBuilder();
+    builder.setTreeId(tree);
+    builder.setParentIds(parents);
+    builder.setAuthor(ident);
+    builder.setCommitter(ident);
+    builder.setMessage(message + "\n");
+    return inserter.insert(builder);
+  }
+
+  private static List<ReceiveCommand> insertTags(Spec spec, ObjectInserter inserter,
+                                                 List<ObjectId> taggable) throws IOException {
+    int releases = spec.tags() == Tags.MANY ? 2000 : 10;
+    // release tags cover the oldest 90% of the mainline, so resolution always has a walk to do
+    int span = Math.max(1, taggable.size() * 9 / 10);
+    List<ReceiveCommand> commands = new ArrayList<>();
+    for (int i = 0; i < releases; i++) {
+      ObjectId target = taggable.get((int) ((long) span * i / releases));
+      String name = String.format("v%d.%d.%d", 1 + i / 100, i % 100 / 10, i % 10);
+      TagBuilder tag = new TagBuilder();
+      tag.setTag(name);
+      tag.setObjectId(target, Constants.OBJ_COMMIT);
+      tag.setTagger(new PersonIdent("gittle", "gittle@example.com", EPOCH, ZoneOffset.UTC));
+      tag.setMessage("Release " + name + "\n");
+      commands.add(create(Constants.R_TAGS + name, inserter.insert(tag)));
+      if (spec.tags() == Tags.MANY) {
+        commands.add(create(Constants.R_TAGS + "nightly-" + i, target));
+      }
+    }
+    return commands;
+  }
+
+  private static ReceiveCommand create(String refName, ObjectId id) {
+    return new ReceiveCommand(ObjectId.zeroId(), id, refName);
+  }
+
+  private static void updateRefs(FileRepository repository, ObjectId head,
+                                 List<ReceiveCommand> tagCommands) throws IOException {
+    RefUpdate update = repository.updateRef(Constants.R_HEADS + "main");
+    update.setNewObjectId(head);
+    update.setForceUpdate(true);
+    update.update();
+
+    BatchRefUpdate batch = repository.getRefDatabase().newBatchUpdate();
+    batch.setAtomic(false);
+    batch.addCommand(tagCommands);
+    try (RevWalk walk = new RevWalk(repository)) {
+      batch.execute(walk, NullProgressMonitor.INSTANCE);
+    }
+    for (ReceiveCommand command : tagCommands) {
+      if (command.getResult() != ReceiveCommand.Result.OK) {
+        throw new GittleException("Failed creating " + command.getRefName() + ": " + command.getResult());
+      }
+    }
+  }
+
+  private static void deleteRecursively(Path dir) throws IOException {
+    if (!Files.exists(dir)) {
+      return;
+    }
+    try (var paths = Files.walk(dir)) {
+      for (Path path : paths.sorted((a, b) -> b.compareTo(a)).toList()) {
+        Files.delete(path);
+      }
+    }
+  }
+}
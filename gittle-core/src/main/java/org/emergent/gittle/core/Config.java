@@ -11,6 +11,7 @@ import org.emergent.gittle.core.gson.Codable;
 
 import java.util.Map;
 
+import static org.emergent.gittle.core.Constants.NATIVE_TIMEOUT_MILLIS_DEF;
 import static org.emergent.gittle.core.Constants.RELEASE_BRANCH_REGEX_DEF;
 import static org.emergent.gittle.core.Constants.TAG_NAME_REGEX_DEF;
 import static org.emergent.gittle.core.Constants.VERSION_PATTERN_DEF;
@@ -37,6 +38,50 @@ public class Config extends Codable.AbstractCodable {
   @NonNull
   @lombok.Builder.Default
   String versionPattern = VERSION_PATTERN_DEF;
+  @lombok.Builder.Default
+  boolean cacheEnabled = true;
+  @lombok.Builder.Default
+  boolean firstParent = false;
+  @lombok.Builder.Default
+  int maxCommits = 0;
+  @lombok.Builder.Default
+  long maxWalkMillis = 0;
+  @NonNull
+  @lombok.Builder.Default
+  DirtyCheck dirtyCheck = DirtyCheck.CONTENT;
+  @NonNull
+  @lombok.Builder.Default
+  Backend backend = Backend.JGIT;
+  @lombok.Builder.Default
+  long nativeTimeoutMillis = NATIVE_TIMEOUT_MILLIS_DEF;
+  @lombok.Builder.Default
+  boolean exportAllProperties = false;
+
+  /**
+   * How tracked files are compared with the index when checking for uncommitted changes.
+   */
+  public enum DirtyCheck {
+    /** Files whose timestamps differ from the index are hashed to confirm a change. */
+    CONTENT,
+    /** Files whose size, mode or timestamp differ from the index are changed, content is never read. */
+    STAT
+  }
+
+  /**
+   * How the history walk and the dirty check read the repository.
+   */
+  public enum Backend {
+    /**
+     * The native git command line when a {@code git} binary is on the path, JGit otherwise. A native
+     * command that fails or times out is retried with JGit, which the repository keeps using from
+     * then on.
+     */
+    AUTO,
+    /** Always read the repository in process with JGit. */
+    JGIT,
+    /** Always run the native git command line. */
+    NATIVE
+  }
 
   public static Config from(Map<String, String> map) {
     return toObj(map, PREFIX, Config.class);
@@ -67,5 +112,45 @@ public class Config extends Codable.AbstractCodable {
     public Builder versionPattern(String versionPattern) {
       return setVersionPattern(versionPattern);
     }
+
+    @Tolerate
+    public Builder cacheEnabled(boolean cacheEnabled) {
+      return setCacheEnabled(cacheEnabled);
+    }
+
+    @Tolerate
+    public Builder firstParent(boolean firstParent) {
+      return setFirstParent(firstParent);
+    }
+
+    @Tolerate
+    public Builder maxCommits(int maxCommits) {
+      return setMaxCommits(maxCommits);
+    }
+
+    @Tolerate
+    public Builder maxWalkMillis(long maxWalkMillis) {
+      return setMaxWalkMillis(maxWalkMillis);
+    }
+
+    @Tolerate
+    public Builder dirtyCheck(DirtyCheck dirtyCheck) {
+      return setDirtyCheck(dirtyCheck);
+    }
+
+    @Tolerate
+    public Builder backend(Backend backend) {
+      return setBackend(backend);
+    }
+
+    @Tolerate
+    public Builder nativeTimeoutMillis(long nativeTimeoutMillis) {
+      return setNativeTimeoutMillis(nativeTimeoutMillis);
+    }
+
+    @Tolerate
+    public Builder exportAllProperties(boolean exportAllProperties) {
+      return setExportAllProperties(exportAllProperties);
+    }
   }
 }
@@ -11,4 +11,5 @@ public class Constants {
   public static final String RELEASE_BRANCH_REGEX_DEF = "^(main|master)$";
   public static final String TAG_NAME_REGEX_DEF = "v?([0-9]+\\.[0-9]+\\.[0-9]+)";
   public static final String VERSION_PATTERN_DEF = "%t(-%B)(-%C)(-%S)(+%H)(.%D)";
+  public static final long NATIVE_TIMEOUT_MILLIS_DEF = 5000;
 }
@@ -3,19 +3,33 @@ package org.emergent.gittle.core;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
+import lombok.ToString;
 import lombok.Value;
 import lombok.experimental.Tolerate;
 import org.emergent.gittle.core.gson.Codable;
 
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
+/**
+ * The state of a repository a version is rendered from.
+ * <p>
+ * The branch, the history fields and the dirty flag can each be given as a supplier instead of a
+ * value. A supplier runs once, on the first read of one of its fields, so a resolution only pays
+ * for the phases that are actually read. {@link #asMap()} exports every field, running the
+ * suppliers, while {@link #asResolvedMap()} leaves out the fields that are still pending.
+ * Equality, hash code and string form go through the getters, so they see the supplied values.
+ */
 @Value
 @NoArgsConstructor
 @AllArgsConstructor
-@EqualsAndHashCode(callSuper = false)
+@ToString(doNotUseGetters = false)
+@EqualsAndHashCode(callSuper = false, doNotUseGetters = false)
 @lombok.experimental.FieldDefaults(level = AccessLevel.PRIVATE)
 @lombok.experimental.Accessors(fluent = false)
 @lombok.Builder(setterPrefix = "set", toBuilder = true, builderClassName = "Builder")
@@ -37,13 +51,85 @@ public class Resolved extends Codable.AbstractCodable {
   int commits = 0;
   @lombok.Builder.Default
   boolean dirty = false;
+  @lombok.Builder.Default
+  boolean limitReached = false;
+  @lombok.Builder.Default
+  boolean truncated = false;
+  @Getter(AccessLevel.NONE)
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  @lombok.Builder.Default
+  transient Supplier<String> lazyBranch = null;
+  @Getter(AccessLevel.NONE)
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  @lombok.Builder.Default
+  transient Supplier<Resolved> lazyHistory = null;
+  @Getter(AccessLevel.NONE)
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  @lombok.Builder.Default
+  transient Supplier<Boolean> lazyDirty = null;
 
   public static Resolved from(Map<String, String> map) {
     return toObj(map, PREFIX, Resolved.class);
   }
 
+  public String getBranch() {
+    return lazyBranch != null ? lazyBranch.get() : branch;
+  }
+
+  public String getTagVersion() {
+    return lazyHistory != null ? lazyHistory.get().getTagVersion() : tagVersion;
+  }
+
+  public int getCommits() {
+    return lazyHistory != null ? lazyHistory.get().getCommits() : commits;
+  }
+
+  public boolean isDirty() {
+    return lazyDirty != null ? lazyDirty.get() : dirty;
+  }
+
+  public boolean isLimitReached() {
+    return lazyHistory != null ? lazyHistory.get().isLimitReached() : limitReached;
+  }
+
+  public boolean isTruncated() {
+    return lazyHistory != null ? lazyHistory.get().isTruncated() : truncated;
+  }
+
   public Map<String, String> asMap() {
+    Map<String, String> map = (lazyBranch == null && lazyHistory == null && lazyDirty == null)
+        ? asMap(PREFIX)
+        : toBuilder()
+            .branch(getBranch())
+            .history(lazyHistory != null ? lazyHistory.get() : this)
+            .dirty(isDirty())
+            .build()
+            .asMap(PREFIX);
+    return withShortHash(map);
+  }
+
+  /**
+   * Returns the properties of the fields given as values, leaving out those given as suppliers so
+   * that none of them runs.
+   */
+  public Map<String, String> asResolvedMap() {
     Map<String, String> map = asMap(PREFIX);
+    if (lazyBranch != null) {
+      map.remove(PREFIX + "branch");
+    }
+    if (lazyHistory != null) {
+      Stream.of("tagVersion", "commits", "limitReached", "truncated").forEach(name -> map.remove(PREFIX + name));
+    }
+    if (lazyDirty != null) {
+      map.remove(PREFIX + "dirty");
+    }
+    return withShortHash(map);
+  }
+
+  private static Map<String, String> withShortHash(Map<String, String> map) {
     Optional.ofNullable(map.get(PREFIX + "hash")).map(Util::toShortHash)
         .ifPresent(v -> map.put(PREFIX + "hashShort", v));
     return map;
@@ -58,7 +144,35 @@ public class Resolved extends Codable.AbstractCodable {
 
     @Tolerate
     public Builder branch(String branch) {
-      return setBranch(branch);
+      return setLazyBranch(null).setBranch(branch);
+    }
+
+    /**
+     * Reads the branch from {@code branch} on first use.
+     */
+    @Tolerate
+    public Builder branch(Supplier<String> branch) {
+      return setLazyBranch(Util.memoize(branch));
+    }
+
+    /**
+     * Copies the tag version, commit count and walk flags of {@code history}.
+     */
+    @Tolerate
+    public Builder history(Resolved history) {
+      return setLazyHistory(null)
+          .setTagVersion(history.getTagVersion())
+          .setCommits(history.getCommits())
+          .setLimitReached(history.isLimitReached())
+          .setTruncated(history.isTruncated());
+    }
+
+    /**
+     * Takes the tag version, commit count and walk flags from {@code history} on first use.
+     */
+    @Tolerate
+    public Builder history(Supplier<Resolved> history) {
+      return setLazyHistory(Util.memoize(history));
     }
 
     @Tolerate
@@ -78,7 +192,25 @@ public class Resolved extends Codable.AbstractCodable {
 
     @Tolerate
     public Builder dirty(boolean hash) {
-      return setDirty(hash);
+      return setLazyDirty(null).setDirty(hash);
+    }
+
+    /**
+     * Checks whether the work tree is dirty with {@code dirty} on first use.
+     */
+    @Tolerate
+    public Builder dirty(Supplier<Boolean> dirty) {
+      return setLazyDirty(Util.memoize(dirty));
+    }
+
+    @Tolerate
+    public Builder limitReached(boolean limitReached) {
+      return setLimitReached(limitReached);
+    }
+
+    @Tolerate
+    public Builder truncated(boolean truncated) {
+      return setTruncated(truncated);
     }
   }
 }
@@ -0,0 +1,108 @@
+package org.emergent.gittle.core.git;
+
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.BitmapIndex;
+import org.eclipse.jgit.lib.BitmapObject;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevFlag;
+import org.eclipse.jgit.revwalk.RevWalk;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.Set;
+
+/**
+ * Counts the commits reachable from HEAD using the pack reachability bitmaps.
+ * <p>
+ * Only the commits between HEAD and the nearest bitmapped commits are visited; everything below
+ * them is answered by OR-ing their stored bitmaps. The result equals the length of a full history
+ * walk, so it is only used when none of the tagged commits is reachable and the walk would
+ * otherwise have to visit the entire history.
+ */
+class BitmapCounter {
+
+  private final ObjectReader reader;
+  private final BitmapIndex bitmapIndex;
+
+  private BitmapCounter(ObjectReader reader, BitmapIndex bitmapIndex) {
+    this.reader = reader;
+    this.bitmapIndex = bitmapIndex;
+  }
+
+  /**
+   * Returns a counter for the repository, or null when it has no pack bitmaps.
+   */
+  static BitmapCounter getInstance(ObjectReader reader) throws IOException {
+    BitmapIndex bitmapIndex = reader.getBitmapIndex();
+    return bitmapIndex != null ? new BitmapCounter(reader, bitmapIndex) : null;
+  }
+
+  /**
+   * Returns the number of commits reachable from {@code headId}, or empty when any of
+   * {@code stopAt} is reachable as well.
+   */
+  OptionalInt count(ObjectId headId, Iterable<? extends AnyObjectId> stopAt) throws IOException {
+    BitmapIndex.BitmapBuilder covered = bitmapIndex.newBitmapBuilder();
+    List<RevCommit> uncovered = new ArrayList<>();
+    try (RevWalk walk = new RevWalk(reader)) {
+      walk.setRetainBody(false);
+      RevFlag seen = walk.newFlag("seen");
+      Deque<RevCommit> pending = new ArrayDeque<>();
+      RevCommit head = walk.parseCommit(headId);
+      head.add(seen);
+      pending.push(head);
+      while (!pending.isEmpty()) {
+        RevCommit commit = pending.pop();
+        if (covered.contains(commit)) {
+          continue;
+        }
+        BitmapIndex.Bitmap bitmap = bitmapIndex.getBitmap(commit);
+        if (bitmap != null) {
+          covered.or(bitmap);
+          continue;
+        }
+        uncovered.add(commit);
+        for (RevCommit parent : commit.getParents()) {
+          if (!parent.has(seen)) {
+            walk.parseHeaders(parent);
+            parent.add(seen);
+            pending.push(parent);
+          }
+        }
+      }
+    }
+
+    // commits visited before a later bitmap covered them must not be counted twice
+    uncovered.removeIf(covered::contains);
+    Set<AnyObjectId> uncoveredIds = new HashSet<>(uncovered);
+    for (AnyObjectId id : stopAt) {
+      if (covered.contains(id) || uncoveredIds.contains(id)) {
+        return OptionalInt.empty();
+      }
+    }
+    return OptionalInt.of(uncovered.size() + countCommits(covered));
+  }
+
+  /**
+   * Bitmaps enumerate their packed objects grouped by type with commits first, so counting can
+   * stop at the first tree instead of visiting every reachable object.
+   */
+  private static int countCommits(BitmapIndex.Bitmap bitmap) {
+    int count = 0;
+    for (BitmapObject object : bitmap) {
+      if (object.getType() != Constants.OBJ_COMMIT) {
+        break;
+      }
+      count++;
+    }
+    return count;
+  }
+}
@@ -0,0 +1,137 @@
+package org.emergent.gittle.core.git;
+
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.dircache.DirCacheIterator;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.submodule.SubmoduleWalk;
+import org.eclipse.jgit.treewalk.CanonicalTreeParser;
+import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+import org.eclipse.jgit.treewalk.FileTreeIterator;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.WorkingTreeIterator;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.SkipWorkTreeFilter;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+import org.emergent.gittle.core.Config;
+import org.emergent.gittle.core.instrument.Instrumentation;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Answers whether the work tree has uncommitted changes, stopping at the first one found.
+ * <p>
+ * This reports the same changes as {@code git status} does for its uncommitted changes (added,
+ * changed, removed, missing, modified and conflicting paths), but only tracked paths are visited:
+ * untracked directories are never descended into and ignore rules are never evaluated. Submodules
+ * are checked recursively, and one that was never initialized, leaving an empty directory, is clean
+ * just as it is for git.
+ * <p>
+ * With {@link Config.DirtyCheck#STAT} a tracked file counts as modified as soon as its size,
+ * mode or timestamp differ from the index, and file content is never read. Files that were merely
+ * touched, or index entries git marked as racily clean, are reported as changes in this mode.
+ */
+public class DirtyChecker {
+
+  private static final int HEAD = 0;
+  private static final int INDEX = 1;
+  private static final int WORKDIR = 2;
+
+  private static final TreeFilter TRACKED = new TreeFilter() {
+    @Override
+    public boolean include(TreeWalk walker) {
+      return walker.getRawMode(HEAD) != 0 || walker.getRawMode(INDEX) != 0;
+    }
+
+    @Override
+    public boolean shouldBeRecursive() {
+      return false;
+    }
+
+    @Override
+    public TreeFilter clone() {
+      return this;
+    }
+  };
+
+  private final Repository repository;
+  private final Config.DirtyCheck mode;
+
+  public DirtyChecker(Repository repository, Config.DirtyCheck mode) {
+    this.repository = Objects.requireNonNull(repository, "repository");
+    this.mode = Objects.requireNonNull(mode, "mode");
+  }
+
+  public boolean isDirty() throws IOException {
+    DirCache dirCache = repository.readDirCache();
+    if (dirCache.hasUnmergedPaths()) {
+      return true;
+    }
+    ObjectId headTree = repository.resolve(Constants.HEAD + "^{tree}");
+    try (ObjectReader reader = repository.newObjectReader();
+         TreeWalk walk = new TreeWalk(repository, reader)) {
+      walk.setRecursive(true);
+      walk.addTree(headTree != null ? new CanonicalTreeParser(null, reader, headTree) : new EmptyTreeIterator());
+      walk.addTree(new DirCacheIterator(dirCache));
+      FileTreeIterator workTree = new FileTreeIterator(repository);
+      walk.addTree(workTree);
+      workTree.setDirCacheIterator(walk, INDEX);
+      walk.setFilter(AndTreeFilter.create(new SkipWorkTreeFilter(INDEX), TRACKED));
+      int stated = 0;
+      try {
+        while (walk.next()) {
+          if (walk.getRawMode(WORKDIR) != 0) {
+            stated++;
+          }
+          if (isModified(walk, reader)) {
+            return true;
+          }
+        }
+        return false;
+      } finally {
+        Instrumentation.count(Instrumentation.Counter.FILES_STATED, stated);
+      }
+    }
+  }
+
+  private boolean isModified(TreeWalk walk, ObjectReader reader) throws IOException {
+    int indexMode = walk.getRawMode(INDEX);
+    if (indexMode == 0 || walk.getRawMode(HEAD) != indexMode || !walk.idEqual(HEAD, INDEX)) {
+      // staged addition, removal or change
+      return true;
+    }
+    if (FileMode.GITLINK.equals(indexMode) && !FileMode.GITLINK.equals(walk.getRawMode(WORKDIR))) {
+      // a submodule that was never initialized has an empty directory, or none, instead of a repository
+      return !isUninitialized(walk.getPathString());
+    }
+    if (walk.getRawMode(WORKDIR) == 0) {
+      return true;
+    }
+    DirCacheEntry entry = walk.getTree(INDEX, DirCacheIterator.class).getDirCacheEntry();
+    WorkingTreeIterator workTree = walk.getTree(WORKDIR, WorkingTreeIterator.class);
+    if (FileMode.GITLINK.equals(indexMode)) {
+      return workTree.isModified(entry, true, reader) || isSubmoduleDirty(walk.getPathString());
+    }
+    if (mode == Config.DirtyCheck.STAT) {
+      return workTree.compareMetadata(entry) != WorkingTreeIterator.MetadataDiff.EQUAL;
+    }
+    return workTree.isModified(entry, true, reader);
+  }
+
+  private boolean isUninitialized(String path) {
+    String[] contents = new File(repository.getWorkTree(), path).list();
+    return contents != null && contents.length == 0;
+  }
+
+  private boolean isSubmoduleDirty(String path) throws IOException {
+    try (Repository submodule = SubmoduleWalk.getSubmoduleRepository(repository, path)) {
+      return submodule != null && new DirtyChecker(submodule, mode).isDirty();
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package org.emergent.gittle.core.git;
+
+import lombok.extern.java.Log;
+import org.eclipse.jgit.lib.ObjectId;
+import org.emergent.gittle.core.GittleException;
+import org.emergent.gittle.core.Resolved;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+/**
+ * Uses a preferred backend until one of its calls fails or times out, and a fallback backend from
+ * then on. Only {@link GittleException}s, which is how the native backend reports failures, cause
+ * the switch. The switch is remembered per git directory for the life of the JVM, so every later
+ * backend created for the same repository, for another phase, module or goal, goes straight to
+ * the fallback instead of waiting for the same failure again.
+ */
+@Log
+class FallbackGitBackend implements GitBackend {
+
+  private static final Set<Path> FAILED = ConcurrentHashMap.newKeySet();
+
+  private final Path gitDir;
+  private final GitBackend preferred;
+  private final GitBackend fallback;
+
+  FallbackGitBackend(File gitDir, GitBackend preferred, GitBackend fallback) {
+    this.gitDir = gitDir.toPath().toAbsolutePath().normalize();
+    this.preferred = Objects.requireNonNull(preferred, "preferred");
+    this.fallback = Objects.requireNonNull(fallback, "fallback");
+  }
+
+  @Override
+  public Resolved walk(ObjectId headId) throws IOException {
+    if (!FAILED.contains(gitDir)) {
+      try {
+        return preferred.walk(headId);
+      } catch (GittleException e) {
+        fail(e);
+      }
+    }
+    return fallback.walk(headId);
+  }
+
+  @Override
+  public boolean isDirty() throws IOException {
+    if (!FAILED.contains(gitDir)) {
+      try {
+        return preferred.isDirty();
+      } catch (GittleException e) {
+        fail(e);
+      }
+    }
+    return fallback.isDirty();
+  }
+
+  private void fail(GittleException e) {
+    if (FAILED.add(gitDir)) {
+      log.log(Level.WARNING, "Falling back to " + fallback.getClass().getSimpleName() + " for " + gitDir + ": "
+          + e.getMessage(), e);
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package org.emergent.gittle.core.git;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.emergent.gittle.core.Config;
+import org.emergent.gittle.core.Resolved;
+
+import java.io.IOException;
+
+/**
+ * Reads the repository state a version is derived from: the nearest tag behind a commit with the
+ * number of commits in front of it, and whether the work tree has uncommitted changes.
+ */
+public interface GitBackend {
+
+  /**
+   * Returns the tag version and commit count of {@code headId}, as computed by {@link HistoryWalker}.
+   */
+  Resolved walk(ObjectId headId) throws IOException;
+
+  /**
+   * Returns true when a tracked path has uncommitted changes, as computed by {@link DirtyChecker}.
+   */
+  boolean isDirty() throws IOException;
+
+  /**
+   * Returns the backend selected by {@link Config#getBackend()} for the repository of {@code git}.
+   * {@link Config.Backend#AUTO} picks the native git command line when a {@code git} binary is on
+   * the path and the repository has a work tree, and JGit otherwise. A native command that fails
+   * or times out is then retried with JGit, which is used for that repository from then on.
+   * Partial clones always use JGit, which stops at missing commits where git would fail.
+   */
+  static GitBackend getInstance(Config config, Git git) {
+    Config.Backend backend = config.getBackend();
+    if (backend == Config.Backend.AUTO) {
+      Repository repository = git.getRepository();
+      boolean useNative = !repository.isBare()
+          && !HistoryWalker.isPartialClone(repository)
+          && NativeGitBackend.isAvailable();
+      return useNative
+          ? new FallbackGitBackend(repository.getDirectory(), new NativeGitBackend(config, git),
+              new JGitBackend(config, git))
+          : new JGitBackend(config, git);
+    }
+    return backend == Config.Backend.NATIVE
+        ? new NativeGitBackend(config, git)
+        : new JGitBackend(config, git);
+  }
+}
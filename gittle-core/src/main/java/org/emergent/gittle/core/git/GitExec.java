@@ -2,11 +2,16 @@ package org.emergent.gittle.core.git;
 
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.RepositoryCache;
 import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.util.FS;
 import org.emergent.gittle.core.GittleException;
+import org.emergent.gittle.core.instrument.Instrumentation;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Objects;
+import java.util.Optional;
 
 public class GitExec {
 
@@ -44,12 +49,39 @@ public class GitExec {
     return getRepository(basePath, false);
   }
 
+  /**
+   * Opens the repository containing {@code basePath}. Callers must close the returned repository.
+   * <p>
+   * Repositories in the standard layout are shared through JGit's {@link RepositoryCache}: every
+   * open increments a use count and every close decrements it, and a repository nobody has used
+   * for a while is closed by the cache's background cleanup. Ref databases, pack indexes and the
+   * window cache therefore stay warm across all the calls made during a build. Repositories whose
+   * layout is overridden by the environment (e.g. {@code GIT_WORK_TREE}) are opened privately.
+   */
   public static Repository getRepository(File basePath, boolean mustExist) throws IOException {
-    return new FileRepositoryBuilder()
-        .readEnvironment()
-        .findGitDir(normalize(basePath))
-        .setMustExist(mustExist)
-        .build();
+    try (Instrumentation.Timer timer = Instrumentation.time(Instrumentation.Phase.REPOSITORY_OPEN)) {
+      FileRepositoryBuilder builder = new FileRepositoryBuilder()
+          .readEnvironment()
+          .findGitDir(normalize(basePath))
+          .setMustExist(mustExist);
+      if (builder.getGitDir() == null || !isStandardLayout(builder.setup())) {
+        return builder.build();
+      }
+      FS fs = Optional.ofNullable(builder.getFS()).orElse(FS.DETECTED);
+      return RepositoryCache.open(RepositoryCache.FileKey.exact(builder.getGitDir(), fs), mustExist);
+    }
+  }
+
+  /**
+   * Returns true when the builder resolves to the same layout as opening its git dir directly,
+   * which is how the shared cache opens repositories.
+   */
+  private static boolean isStandardLayout(FileRepositoryBuilder builder) throws IOException {
+    FileRepositoryBuilder plain = new FileRepositoryBuilder().setGitDir(builder.getGitDir()).setup();
+    return Objects.equals(plain.getWorkTree(), builder.getWorkTree())
+        && Objects.equals(plain.getIndexFile(), builder.getIndexFile())
+        && Objects.equals(plain.getObjectDirectory(), builder.getObjectDirectory())
+        && Optional.ofNullable(builder.getAlternateObjectDirectories()).map(a -> a.length == 0).orElse(true);
   }
 
   private static File normalize(File file) {
@@ -8,8 +8,12 @@ import org.eclipse.jgit.lib.Ref;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevWalk;
+import org.emergent.gittle.core.Constants;
 import org.emergent.gittle.core.GittleException;
 import org.emergent.gittle.core.git.GitExec.ExecFunction;
+import org.emergent.gittle.core.instrument.Instrumentation;
+import org.emergent.gittle.core.jfr.CommitCreateEvent;
+import org.emergent.gittle.core.jfr.TagCreateEvent;
 
 import java.io.File;
 import java.io.FileOutputStream;
@@ -40,7 +44,7 @@ public class GitUtil {
   private GitUtil(File basedir, boolean useNative) {
     this.basePath = basedir;
     this.useNative = useNative;
-    this.timeout = Duration.ofSeconds(5);
+    this.timeout = Duration.ofMillis(Constants.NATIVE_TIMEOUT_MILLIS_DEF);
   }
 
   public boolean tagExists(String tagName) {
@@ -48,6 +52,22 @@ public class GitUtil {
   }
 
   public String createTag(String tagName, String tagMessage, boolean force) {
+    TagCreateEvent event = new TagCreateEvent();
+    event.begin();
+    try (Instrumentation.Timer timer = Instrumentation.time(Instrumentation.Phase.TAG_CREATE)) {
+      return createTagJava(tagName, tagMessage, force);
+    } finally {
+      event.end();
+      if (event.shouldCommit()) {
+        event.basePath = basePath.getAbsolutePath();
+        event.tagName = tagName;
+        event.force = force;
+        event.commit();
+      }
+    }
+  }
+
+  private String createTagJava(String tagName, String tagMessage, boolean force) {
     return execOp(git -> {
       Ref tag = git.tag()
           .setName(tagName)
@@ -59,10 +79,21 @@ public class GitUtil {
   }
 
   public void executeCommit(String message) {
-    if (useNative) {
-      executeCommitNative(message);
-    } else {
-      executeCommitJava(message);
+    CommitCreateEvent event = new CommitCreateEvent();
+    event.begin();
+    try (Instrumentation.Timer timer = Instrumentation.time(Instrumentation.Phase.COMMIT_CREATE)) {
+      if (useNative) {
+        executeCommitNative(message);
+      } else {
+        executeCommitJava(message);
+      }
+    } finally {
+      event.end();
+      if (event.shouldCommit()) {
+        event.basePath = basePath.getAbsolutePath();
+        event.nativeGit = useNative;
+        event.commit();
+      }
     }
   }
 
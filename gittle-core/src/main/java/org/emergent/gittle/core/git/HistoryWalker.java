@@ -0,0 +1,307 @@
+package org.emergent.gittle.core.git;
+
+import lombok.extern.java.Log;
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.internal.storage.commitgraph.CommitGraph;
+import org.eclipse.jgit.internal.storage.commitgraph.CommitGraphFormatException;
+import org.eclipse.jgit.internal.storage.commitgraph.CommitGraphLoader;
+import org.eclipse.jgit.internal.storage.file.ObjectDirectory;
+import org.eclipse.jgit.lib.ConfigConstants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevFlag;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.emergent.gittle.core.Config;
+import org.emergent.gittle.core.Resolved;
+import org.emergent.gittle.core.instrument.Instrumentation;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finds the nearest matching tag behind HEAD and the number of commits in front of it.
+ * <p>
+ * Commits are visited in the same commit-date order as {@code git log}, so the results are
+ * identical to a plain log walk, but commit bodies are never retained and tagged commits are
+ * recognised by a {@link RevFlag} set on them before the walk starts. When the repository has a
+ * commit-graph, parents and commit times come from the graph rather than from inflated commits,
+ * and its generation numbers rule out tags that cannot be ancestors of HEAD. If no tag remains
+ * the walk is replaced by a count of the commits reachable in the graph. Without a graph, pack
+ * reachability bitmaps answer the same question through {@link BitmapCounter}.
+ * <p>
+ * In first-parent mode only the first parent of each commit is followed, so tags and commits
+ * that were merged in from other branches are ignored and the walk is bounded by the length of
+ * the mainline. Bitmaps describe full reachability and are not used in this mode.
+ * <p>
+ * The walk stops once it has scanned {@link Config#getMaxCommits()} commits or spent
+ * {@link Config#getMaxWalkMillis()} without finding a tag, and then resolves to
+ * {@link Resolved#TAG_VERSION_DEF} with {@link Resolved#isLimitReached()} set. Counting through
+ * the commit-graph or bitmaps is exact and fast, so it is not limited.
+ * <p>
+ * In a shallow clone the commits listed in {@code .git/shallow} have no parents, and the walk
+ * stops there. Their missing ancestors could have been visited before the tag, so once the walk
+ * passes a shallow commit the result has {@link Resolved#isTruncated()} set. In a partial clone
+ * a commit that is not present locally ends the walk the same way instead of failing, and
+ * bitmaps, which may describe objects that were never fetched, are not used.
+ */
+@Log
+public class HistoryWalker {
+
+  private static final String COMMIT_GRAPH_FILE = "info/commit-graph";
+  private static final String PACK_DIR = "pack";
+  private static final String PROMISOR_SUFFIX = ".promisor";
+  private static final String PARTIAL_CLONE = "partialclone";
+  private static final Map<File, LoadedGraph> COMMIT_GRAPHS = new ConcurrentHashMap<>();
+
+  private final Repository repository;
+  private final TagProvider tagProvider;
+  private final boolean firstParent;
+  private final int maxCommits;
+  private final long maxWalkMillis;
+
+  public HistoryWalker(Repository repository, TagProvider tagProvider) {
+    this(repository, tagProvider, false);
+  }
+
+  public HistoryWalker(Repository repository, TagProvider tagProvider, boolean firstParent) {
+    this(repository, tagProvider, firstParent, 0, 0);
+  }
+
+  /**
+   * Creates a walker with the first-parent mode and the limits of {@code config}.
+   */
+  public HistoryWalker(Repository repository, TagProvider tagProvider, Config config) {
+    this(repository, tagProvider, config.isFirstParent(), config.getMaxCommits(), config.getMaxWalkMillis());
+  }
+
+  private HistoryWalker(Repository repository, TagProvider tagProvider, boolean firstParent, int maxCommits,
+                        long maxWalkMillis) {
+    this.repository = Objects.requireNonNull(repository, "repository");
+    this.tagProvider = Objects.requireNonNull(tagProvider, "tagProvider");
+    this.firstParent = firstParent;
+    this.maxCommits = maxCommits;
+    this.maxWalkMillis = maxWalkMillis;
+  }
+
+  public Resolved walk(ObjectId headId) throws IOException {
+    WalkBudget budget = new WalkBudget(maxCommits, maxWalkMillis);
+    try (ObjectReader reader = newObjectReader(repository);
+         RevWalk walk = new RevWalk(reader)) {
+      walk.setRetainBody(false);
+      walk.setFirstParent(firstParent);
+      CommitGraph graph = reader.getCommitGraph().orElse(CommitGraph.EMPTY);
+      boolean tagReachable = isTagReachable(graph, headId);
+      Set<ObjectId> shallowCommits = reader.getShallowCommits();
+      boolean shallow = !shallowCommits.isEmpty();
+      boolean partial = isPartialClone(repository);
+      if (!tagReachable && !shallow) {
+        int headPos = graph.findGraphPosition(headId);
+        int commits = firstParent ? countFirstParents(graph, headPos) : countReachable(graph, headPos);
+        Instrumentation.count(Instrumentation.Counter.COMMITS_VISITED, commits);
+        return Resolved.builder().commits(commits).build();
+      }
+      BitmapCounter bitmapCounter = shallow || partial || firstParent ? null : BitmapCounter.getInstance(reader);
+      if (bitmapCounter != null) {
+        OptionalInt count = bitmapCounter.count(headId, tagProvider.getTaggedCommits());
+        if (count.isPresent()) {
+          return Resolved.builder().commits(count.getAsInt()).build();
+        }
+      }
+
+      RevFlag tagged = walk.newFlag("tagged");
+      if (tagReachable) {
+        tagProvider.markTagged(walk, tagged);
+      }
+      walk.markStart(walk.parseCommit(headId));
+      int commits = 0;
+      boolean truncated = false;
+      try {
+        for (RevCommit commit = walk.next(); commit != null; commit = walk.next()) {
+          boolean isMergeCommit = commit.getParentCount() > 1;
+          if (commit.has(tagged) && !isMergeCommit) {
+            String tagVersion = tagProvider.getTag(commit).map(TagVersion::toString).orElseThrow();
+            return Resolved.builder().tagVersion(tagVersion).commits(commits).truncated(truncated).build();
+          }
+          if (budget.isExhausted(commits)) {
+            return budget.exhausted(commits);
+          }
+          truncated |= shallow && shallowCommits.contains(commit);
+          commits++;
+        }
+      } catch (MissingObjectException e) {
+        if (!partial) {
+          throw e;
+        }
+        log.fine(() -> "Stopped the history walk at missing object " + e.getObjectId().name());
+        truncated = true;
+      } finally {
+        Instrumentation.count(Instrumentation.Counter.COMMITS_VISITED, commits);
+      }
+      return Resolved.builder().commits(commits).truncated(truncated).build();
+    }
+  }
+
+  /**
+   * Returns true for a partial clone, whose objects may be missing locally until git fetches them
+   * from the promisor remote.
+   */
+  static boolean isPartialClone(Repository repository) {
+    StoredConfig config = repository.getConfig();
+    if (config.getString(ConfigConstants.CONFIG_EXTENSIONS_SECTION, null, PARTIAL_CLONE) != null) {
+      return true;
+    }
+    File[] promisors = Optional.of(repository.getObjectDatabase())
+        .filter(ObjectDirectory.class::isInstance)
+        .map(odb -> new File(((ObjectDirectory) odb).getDirectory(), PACK_DIR))
+        .map(dir -> dir.listFiles((d, name) -> name.endsWith(PROMISOR_SUFFIX)))
+        .orElse(null);
+    return promisors != null && promisors.length > 0;
+  }
+
+  /**
+   * Returns false only when the commit-graph proves that no tagged commit is an ancestor of HEAD.
+   * A graph is closed under ancestry, so once HEAD is in the graph a tagged commit outside of it
+   * cannot be reachable, and generation numbers strictly decrease from child to parent.
+   */
+  private boolean isTagReachable(CommitGraph graph, ObjectId headId) {
+    int headPos = graph.findGraphPosition(headId);
+    if (headPos < 0) {
+      return true;
+    }
+    int headGeneration = graph.getCommitData(headPos).getGeneration();
+    if (headGeneration <= 0) {
+      return true;
+    }
+    for (TagProvider.TaggedCommit tagged : tagProvider.getTaggedCommits()) {
+      if (tagged.equals(headId)) {
+        return true;
+      }
+      int pos = graph.findGraphPosition(tagged);
+      if (pos >= 0) {
+        int generation = graph.getCommitData(pos).getGeneration();
+        if (generation <= 0 || generation < headGeneration) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static int countReachable(CommitGraph graph, int headPos) {
+    BitSet seen = new BitSet();
+    int[] stack = new int[64];
+    int size = 0;
+    stack[size++] = headPos;
+    seen.set(headPos);
+    int count = 0;
+    while (size > 0) {
+      int pos = stack[--size];
+      count++;
+      for (int parent : graph.getCommitData(pos).getParents()) {
+        if (!seen.get(parent)) {
+          seen.set(parent);
+          if (size == stack.length) {
+            stack = Arrays.copyOf(stack, size * 2);
+          }
+          stack[size++] = parent;
+        }
+      }
+    }
+    return count;
+  }
+
+  private static int countFirstParents(CommitGraph graph, int headPos) {
+    int count = 1;
+    for (int[] parents = graph.getCommitData(headPos).getParents(); parents.length > 0; count++) {
+      parents = graph.getCommitData(parents[0]).getParents();
+    }
+    return count;
+  }
+
+  /**
+   * JGit only reads the commit-graph when {@code core.commitGraph} is set, while git itself reads
+   * it by default. When the setting is absent and a graph file exists, the graph is loaded here and
+   * handed to the walk through the reader, leaving the repository's shared config untouched.
+   */
+  private static ObjectReader newObjectReader(Repository repository) throws IOException {
+    ObjectReader reader = repository.newObjectReader();
+    String section = ConfigConstants.CONFIG_CORE_SECTION;
+    String name = ConfigConstants.CONFIG_COMMIT_GRAPH;
+    if (repository.getConfig().getString(section, null, name) != null
+        || !(repository.getObjectDatabase() instanceof ObjectDirectory dir)) {
+      return reader;
+    }
+    try {
+      CommitGraph graph = loadCommitGraph(new File(dir.getDirectory(), COMMIT_GRAPH_FILE));
+      return graph != null ? new CommitGraphReader(reader, graph) : reader;
+    } catch (IOException | RuntimeException e) {
+      reader.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Returns the graph in {@code file}, or null when there is none. Graphs are kept until the file
+   * changes, so repeated walks of the same repository read it once.
+   */
+  private static CommitGraph loadCommitGraph(File file) throws IOException {
+    long lastModified = file.lastModified();
+    long length = file.length();
+    if (lastModified == 0L) {
+      COMMIT_GRAPHS.remove(file);
+      return null;
+    }
+    LoadedGraph loaded = COMMIT_GRAPHS.get(file);
+    if (loaded == null || loaded.lastModified() != lastModified || loaded.length() != length) {
+      try {
+        loaded = new LoadedGraph(lastModified, length, CommitGraphLoader.open(file));
+      } catch (FileNotFoundException e) {
+        return null;
+      } catch (CommitGraphFormatException e) {
+        log.fine(() -> "Ignoring unreadable commit-graph " + file + ": " + e.getMessage());
+        return null;
+      }
+      COMMIT_GRAPHS.put(file, loaded);
+    }
+    return loaded.graph();
+  }
+
+  private record LoadedGraph(long lastModified, long length, CommitGraph graph) {
+  }
+
+  /**
+   * Answers {@link #getCommitGraph()} with a graph loaded outside of the repository's config.
+   */
+  private static final class CommitGraphReader extends ObjectReader.Filter {
+
+    private final ObjectReader delegate;
+    private final CommitGraph graph;
+
+    CommitGraphReader(ObjectReader delegate, CommitGraph graph) {
+      this.delegate = delegate;
+      this.graph = graph;
+    }
+
+    @Override
+    protected ObjectReader delegate() {
+      return delegate;
+    }
+
+    @Override
+    public Optional<CommitGraph> getCommitGraph() {
+      return Optional.of(graph);
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package org.emergent.gittle.core.git;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
+import org.emergent.gittle.core.Config;
+import org.emergent.gittle.core.Resolved;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Reads the repository in process with {@link HistoryWalker} and {@link DirtyChecker}.
+ */
+public class JGitBackend implements GitBackend {
+
+  private final Config config;
+  private final Git git;
+
+  public JGitBackend(Config config, Git git) {
+    this.config = Objects.requireNonNull(config, "config");
+    this.git = Objects.requireNonNull(git, "git");
+  }
+
+  @Override
+  public Resolved walk(ObjectId headId) throws IOException {
+    TagProvider tagProvider = new TagProvider(config.getTagNameRegex(), git);
+    return new HistoryWalker(git.getRepository(), tagProvider, config).walk(headId);
+  }
+
+  @Override
+  public boolean isDirty() throws IOException {
+    return new DirtyChecker(git.getRepository(), config.getDirtyCheck()).isDirty();
+  }
+}
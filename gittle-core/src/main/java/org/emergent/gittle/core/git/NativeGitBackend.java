@@ -0,0 +1,212 @@
+package org.emergent.gittle.core.git;
+
+import lombok.extern.java.Log;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.emergent.gittle.core.Config;
+import org.emergent.gittle.core.GittleException;
+import org.emergent.gittle.core.Resolved;
+import org.emergent.gittle.core.Util;
+import org.emergent.gittle.core.instrument.Instrumentation;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Reads the repository by running the native git command line, which uses the commit-graph,
+ * bitmaps and the untracked cache git itself maintains.
+ * <p>
+ * The history is read from {@code git rev-list --parents}, which lists commits in the same
+ * commit-date order as {@link HistoryWalker}, and the output is abandoned at the first tagged
+ * non-merge commit. When no tag matches, {@code git rev-list --count} counts the history without
+ * listing it. Both follow only first parents in first-parent mode, and the listing honours the
+ * same commit and time limits as {@link HistoryWalker}. In a shallow clone the history is always
+ * listed, so a walk that passes a shallow commit can be reported as truncated. The dirty check reads
+ * {@code git status --porcelain -uno} up to its first line, so untracked files are never scanned.
+ * Git always confirms a changed timestamp by reading the content, so
+ * {@link Config.DirtyCheck#STAT} behaves like {@link Config.DirtyCheck#CONTENT} here.
+ * <p>
+ * Every command is killed when it runs longer than {@link Config#getNativeTimeoutMillis()}, where
+ * zero or less means no timeout, and a command that times out or fails raises a
+ * {@link GittleException}. Commands never fetch missing
+ * objects from a promisor remote, so in a partial clone a missing commit fails the walk.
+ */
+@Log
+public class NativeGitBackend implements GitBackend {
+
+  private static final boolean IS_WINDOWS = System.getProperty("os.name").startsWith("Windows");
+  private static final File NULL_FILE = new File(IS_WINDOWS ? "NUL" : "/dev/null");
+  private static final Supplier<Boolean> AVAILABLE = Util.memoize(NativeGitBackend::findExecutable);
+
+  private final Config config;
+  private final Git git;
+  private final long timeoutMillis;
+
+  public NativeGitBackend(Config config, Git git) {
+    this.config = Objects.requireNonNull(config, "config");
+    this.git = Objects.requireNonNull(git, "git");
+    this.timeoutMillis = config.getNativeTimeoutMillis();
+  }
+
+  /**
+   * Returns true when a {@code git} executable is on the path.
+   */
+  public static boolean isAvailable() {
+    return AVAILABLE.get();
+  }
+
+  @Override
+  public Resolved walk(ObjectId headId) {
+    TagProvider tagProvider = new TagProvider(config.getTagNameRegex(), git);
+    List<String> revList = new ArrayList<>(List.of("rev-list"));
+    if (config.isFirstParent()) {
+      revList.add("--first-parent");
+    }
+    Set<ObjectId> shallowCommits = getShallowCommits();
+    if (!tagProvider.getTaggedCommits().iterator().hasNext() && shallowCommits.isEmpty()) {
+      revList.addAll(List.of("--count", headId.getName()));
+      int commits = run(revList, reader -> Integer.parseInt(reader.readLine().trim()));
+      return Resolved.builder().commits(commits).build();
+    }
+    revList.addAll(List.of("--parents", headId.getName()));
+    WalkBudget budget = new WalkBudget(config.getMaxCommits(), config.getMaxWalkMillis());
+    return run(revList, reader -> {
+      int commits = 0;
+      boolean truncated = false;
+      try {
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+          // each line is the commit followed by its parents
+          int end = line.indexOf(' ');
+          boolean isMergeCommit = end >= 0 && line.indexOf(' ', end + 1) >= 0;
+          ObjectId commit = ObjectId.fromString(end < 0 ? line : line.substring(0, end));
+          if (!isMergeCommit) {
+            Optional<TagVersion> tag = tagProvider.getTag(commit);
+            if (tag.isPresent()) {
+              return Resolved.builder()
+                  .tagVersion(tag.get().toString())
+                  .commits(commits)
+                  .truncated(truncated)
+                  .build();
+            }
+          }
+          if (budget.isExhausted(commits)) {
+            return budget.exhausted(commits);
+          }
+          truncated |= shallowCommits.contains(commit);
+          commits++;
+        }
+        return Resolved.builder().commits(commits).truncated(truncated).build();
+      } finally {
+        Instrumentation.count(Instrumentation.Counter.COMMITS_VISITED, commits);
+      }
+    });
+  }
+
+  @Override
+  public boolean isDirty() {
+    return run(List.of("status", "--porcelain", "-uno", "--ignore-submodules=untracked"),
+        reader -> reader.readLine() != null);
+  }
+
+  private Set<ObjectId> getShallowCommits() {
+    try (ObjectReader reader = git.getRepository().newObjectReader()) {
+      return reader.getShallowCommits();
+    } catch (IOException e) {
+      throw new GittleException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Runs git with {@code args} and hands its output to {@code outputReader}. Output the reader
+   * leaves unread is not needed, and the process is killed rather than waited for.
+   */
+  private <R> R run(List<String> args, OutputReader<R> outputReader) {
+    String name = "git " + args.get(0);
+    Repository repository = git.getRepository();
+    List<String> command = new ArrayList<>(List.of("git", "--no-optional-locks",
+        "--git-dir", repository.getDirectory().getAbsolutePath()));
+    if (!repository.isBare()) {
+      command.addAll(List.of("--work-tree", repository.getWorkTree().getAbsolutePath()));
+    }
+    command.addAll(args);
+    log.fine(() -> "Running " + String.join(" ", command));
+    try {
+      ProcessBuilder builder = new ProcessBuilder(command);
+      builder.environment().put("GIT_NO_LAZY_FETCH", "1");
+      Process process = builder
+          .redirectInput(ProcessBuilder.Redirect.from(NULL_FILE))
+          .redirectError(ProcessBuilder.Redirect.DISCARD)
+          .start();
+      // killing the process also ends a read that is blocked on its output
+      CompletableFuture<Boolean> expiry = new CompletableFuture<>();
+      if (timeoutMillis > 0) {
+        expiry.completeOnTimeout(true, timeoutMillis, TimeUnit.MILLISECONDS);
+      }
+      expiry.thenAccept(expired -> {
+        if (expired) {
+          process.destroyForcibly();
+        }
+      });
+      try (BufferedReader reader = process.inputReader()) {
+        R result = outputReader.read(reader);
+        if (reader.read() != -1) {
+          process.destroy();
+          return result;
+        }
+        if (!expiry.complete(false) || !waitFor(process)) {
+          process.destroyForcibly();
+          throw new GittleException("Timed out while running " + name);
+        }
+        if (process.exitValue() != 0) {
+          throw new GittleException("Git " + args.get(0) + " returned exit code " + process.exitValue());
+        }
+        return result;
+      } finally {
+        expiry.complete(false);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new GittleException(e.getMessage(), e);
+    } catch (GittleException e) {
+      throw e;
+    } catch (IOException | RuntimeException e) {
+      throw new GittleException(e.getMessage(), e);
+    }
+  }
+
+  private boolean waitFor(Process process) throws InterruptedException {
+    if (timeoutMillis > 0) {
+      return process.waitFor(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+    process.waitFor();
+    return true;
+  }
+
+  private static boolean findExecutable() {
+    String path = Optional.ofNullable(System.getenv("PATH")).orElse("");
+    List<String> names = IS_WINDOWS ? List.of("git.exe", "git.cmd") : List.of("git");
+    return Stream.of(path.split(File.pathSeparator))
+        .filter(Util::isNotEmpty)
+        .flatMap(dir -> names.stream().map(name -> Path.of(dir, name)))
+        .anyMatch(file -> Files.isRegularFile(file) && Files.isExecutable(file));
+  }
+
+  @FunctionalInterface
+  private interface OutputReader<R> {
+    R read(BufferedReader reader) throws IOException;
+  }
+}
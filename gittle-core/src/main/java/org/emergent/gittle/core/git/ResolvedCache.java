@@ -0,0 +1,155 @@
+package org.emergent.gittle.core.git;
+
+import lombok.extern.java.Log;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.emergent.gittle.core.Config;
+import org.emergent.gittle.core.Resolved;
+import org.emergent.gittle.core.Util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.stream.Stream;
+
+/**
+ * Persistent cache of history resolution results, stored under {@code <gitDir>/gittle/cache}.
+ * <p>
+ * Entries are keyed by a digest of HEAD, every tag ref and the settings that influence the
+ * history walk, so a new commit, a new or moved tag, or a configuration change simply produces
+ * a different key. Only the history derived values (tag version and commit count) are cached;
+ * the branch and dirty state are cheap or volatile and are always computed fresh.
+ * <p>
+ * Entries are written to a temporary file and atomically renamed into place, so concurrent
+ * builds never observe a partially written entry and racing writers of the same key are harmless.
+ */
+@Log
+public class ResolvedCache {
+
+  private static final String CACHE_DIR = "gittle/cache";
+  private static final String SUFFIX = ".properties";
+  private static final int MAX_ENTRIES = 32;
+
+  private final Path dir;
+
+  private ResolvedCache(Path dir) {
+    this.dir = dir;
+  }
+
+  public static ResolvedCache getInstance(Repository repository) {
+    return new ResolvedCache(repository.getDirectory().toPath().resolve(CACHE_DIR));
+  }
+
+  /**
+   * Computes the cache key for resolving {@code headId} with the given configuration. Only tags
+   * that could match the configured tag regex contribute to the key.
+   */
+  public String createKey(Repository repository, ObjectId headId, Config config) throws IOException {
+    MessageDigest md = Constants.newMessageDigest();
+    update(md, "core", Util.getCoreCoordinates().getVersion());
+    update(md, "head", headId.getName());
+    updateTags(md, repository, config);
+    return ObjectId.fromRaw(md.digest()).getName();
+  }
+
+  /**
+   * Computes a key that changes whenever a tag that could match the configured tag regex is
+   * added, moved or removed, or the walk settings change, but not when new commits are made.
+   */
+  public static String createTagsKey(Repository repository, Config config) throws IOException {
+    MessageDigest md = Constants.newMessageDigest();
+    update(md, "core", Util.getCoreCoordinates().getVersion());
+    updateTags(md, repository, config);
+    return ObjectId.fromRaw(md.digest()).getName();
+  }
+
+  private static void updateTags(MessageDigest md, Repository repository, Config config) throws IOException {
+    update(md, "tagNameRegex", config.getTagNameRegex());
+    update(md, "firstParent", String.valueOf(config.isFirstParent()));
+    List<Ref> tags = repository.getRefDatabase().getRefsByPrefix(TagProvider.getRefPrefix(config.getTagNameRegex()));
+    tags.stream().sorted(Comparator.comparing(Ref::getName)).forEachOrdered(ref -> {
+      update(md, ref.getName(), ObjectId.toString(ref.getObjectId()));
+      update(md, "peeled", ObjectId.toString(ref.getPeeledObjectId()));
+    });
+  }
+
+  public Optional<Resolved> get(String key) {
+    Path file = dir.resolve(key + SUFFIX);
+    if (!Files.isRegularFile(file)) {
+      return Optional.empty();
+    }
+    try {
+      Resolved resolved = Resolved.from(Util.toMap(Util.loadPropsFromFile(file)));
+      return Optional.of(resolved);
+    } catch (RuntimeException e) {
+      log.log(Level.FINE, "Ignoring unreadable cache entry " + file, e);
+      return Optional.empty();
+    }
+  }
+
+  public void put(String key, Resolved resolved) {
+    Path file = dir.resolve(key + SUFFIX);
+    try {
+      Files.createDirectories(dir);
+      Path tmp = Files.createTempFile(dir, key, ".tmp");
+      try {
+        try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.ISO_8859_1)) {
+          Util.toProperties(resolved.asMap()).store(writer, null);
+        }
+        move(tmp, file);
+      } finally {
+        Files.deleteIfExists(tmp);
+      }
+      prune();
+    } catch (IOException e) {
+      // the cache is an optimisation only, a failed write must never fail the build
+      log.log(Level.FINE, "Failed writing cache entry " + file, e);
+    }
+  }
+
+  private static void move(Path source, Path target) throws IOException {
+    try {
+      Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private void prune() throws IOException {
+    List<Path> entries;
+    try (Stream<Path> files = Files.list(dir)) {
+      entries = files.filter(p -> p.getFileName().toString().endsWith(SUFFIX))
+          .sorted(Comparator.comparing(ResolvedCache::lastModified).reversed())
+          .toList();
+    }
+    for (Path stale : entries.subList(Math.min(MAX_ENTRIES, entries.size()), entries.size())) {
+      // another build may be pruning concurrently
+      Files.deleteIfExists(stale);
+    }
+  }
+
+  private static FileTime lastModified(Path path) {
+    try {
+      return Files.getLastModifiedTime(path);
+    } catch (IOException e) {
+      return FileTime.fromMillis(0);
+    }
+  }
+
+  private static void update(MessageDigest md, String name, String value) {
+    md.update((name + "=" + Optional.ofNullable(value).orElse("") + "\n").getBytes(StandardCharsets.UTF_8));
+  }
+}
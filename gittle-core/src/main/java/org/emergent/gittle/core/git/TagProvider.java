@@ -1,157 +1,235 @@
 package org.emergent.gittle.core.git;
 
 import org.apache.commons.lang3.StringUtils;
-import org.apache.maven.artifact.versioning.ComparableVersion;
 import org.eclipse.jgit.api.Git;
-import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.AnyObjectId;
 import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
-import org.eclipse.jgit.lib.ObjectLoader;
-import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.ObjectIdOwnerMap;
 import org.eclipse.jgit.lib.Ref;
-import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevFlag;
 import org.eclipse.jgit.revwalk.RevObject;
-import org.eclipse.jgit.revwalk.RevTag;
+import org.eclipse.jgit.revwalk.RevWalk;
 import org.emergent.gittle.core.GittleException;
 import org.emergent.gittle.core.Util;
+import org.emergent.gittle.core.instrument.Instrumentation;
+import org.emergent.gittle.core.jfr.TagMapEvent;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Supplier;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 public class TagProvider {
 
   private final Pattern pattern;
+  private final String refPrefix;
   private final Git git;
-  private final Supplier<Map<ObjectId, List<ComparableVersion>>> tagMap;
+  private final Supplier<ObjectIdOwnerMap<TaggedCommit>> tagMap;
 
   public TagProvider(String tagNameRegex, Git git) {
     String regex = Objects.requireNonNull(tagNameRegex, "tagNameRegex");
     regex = (regex.startsWith("^") ? "" : "^") + regex;
     regex = regex + (regex.endsWith("$") ? "" : "$");
     this.pattern = Pattern.compile(regex);
+    this.refPrefix = getRefPrefix(tagNameRegex);
     this.git = Objects.requireNonNull(git, "git");
     this.tagMap = Util.memoize(this::createTagMap);
   }
 
-  private Map<ObjectId, List<ComparableVersion>> createTagMap() {
-    // create a map of commit-refs and corresponding list of tags
-    try {
-      return git.tagList().call().stream()
-          .map(ref -> {
-            String refName = ref.getLeaf().getName();
-            String tagName = StringUtils.substringAfter(refName, "refs/tags/");
-            return Map.entry(ref, pattern.matcher(tagName));
-          })
-          .filter(entry -> entry.getValue().matches())
-          .collect(Collectors.groupingBy(
-              entry -> getObjectId(entry.getKey()),
-              Collectors.mapping(
-                  entry -> new ComparableVersion(entry.getValue().group(1)),
-                  Collectors.toList())));
-    } catch (GitAPIException e) {
+  private ObjectIdOwnerMap<TaggedCommit> createTagMap() {
+    // map each tagged commit to its greatest matching version
+    Repository repository = git.getRepository();
+    ObjectIdOwnerMap<TaggedCommit> tags = new ObjectIdOwnerMap<>();
+    boolean instrumented = Instrumentation.isEnabled();
+    int scanned = 0;
+    int opened = 0;
+    long peelNanos = 0;
+    TagMapEvent event = new TagMapEvent();
+    event.begin();
+    try (Instrumentation.Timer timer = Instrumentation.time(Instrumentation.Phase.TAG_ENUMERATION);
+         RevWalk walk = new RevWalk(repository)) {
+      walk.setRetainBody(false);
+      Matcher matcher = pattern.matcher("");
+      Map<Character, Boolean> firstChars = new HashMap<>();
+      for (Ref ref : repository.getRefDatabase().getRefsByPrefix(refPrefix)) {
+        scanned++;
+        // match the name first, so only matching tags ever cost object I/O
+        String tagName = StringUtils.substringAfter(ref.getLeaf().getName(), Constants.R_TAGS);
+        if (tagName.isEmpty()
+            || !firstChars.computeIfAbsent(tagName.charAt(0), c -> canStartMatch(matcher, c))
+            || !matcher.reset(tagName).matches()) {
+          continue;
+        }
+        long peelStart = instrumented ? System.nanoTime() : 0;
+        ObjectId target = peel(walk, ref);
+        if (instrumented) {
+          peelNanos += System.nanoTime() - peelStart;
+          opened += ref.isPeeled() ? 0 : 1;
+        }
+        if (target == null) {
+          continue;
+        }
+        TagVersion version = TagVersion.parse(matcher.group(1));
+        TaggedCommit tagged = tags.get(target);
+        if (tagged == null) {
+          tags.add(new TaggedCommit(target, version));
+        } else if (version.compareTo(tagged.version) > 0) {
+          tagged.version = version;
+        }
+      }
+    } catch (IOException e) {
       throw new GittleException(e);
     }
+    event.end();
+    if (event.shouldCommit()) {
+      event.gitDir = repository.getDirectory().getAbsolutePath();
+      event.tagsScanned = scanned;
+      event.taggedCommits = tags.size();
+      event.commit();
+    }
+    if (instrumented) {
+      Instrumentation.report(Instrumentation.Phase.TAG_PEEL, peelNanos);
+      Instrumentation.count(Instrumentation.Counter.TAGS_SCANNED, scanned);
+      Instrumentation.count(Instrumentation.Counter.OBJECTS_OPENED, opened);
+    }
+    return tags;
   }
 
   /**
    * Returns the tag with the greatest semantic version that points to this commit.
    */
-  public Optional<ComparableVersion> getTag(RevCommit commit) {
-    List<ComparableVersion> tags = tagMap.get().getOrDefault(commit.getId(), Collections.emptyList());
-    return tags.stream().max(Comparator.naturalOrder());
+  public Optional<TagVersion> getTag(AnyObjectId commit) {
+    return Optional.ofNullable(tagMap.get().get(commit)).map(TaggedCommit::getVersion);
   }
 
-  public ObjectId getObjectId(Ref ref) {
-    return getObjectId(resolveRevObject(ref).getLast());
+  /**
+   * Returns the commits that carry at least one matching tag.
+   */
+  public Iterable<TaggedCommit> getTaggedCommits() {
+    return tagMap.get();
   }
 
-  public ObjectId getObjectId(ObjectId objectId) {
-    return getObjectId(resolveRevObject(objectId).getLast());
+  /**
+   * Marks every tagged commit with {@code flag} on the walk's own commit objects, so a walk can
+   * recognise tagged commits with a flag test instead of a map lookup.
+   */
+  public void markTagged(RevWalk walk, RevFlag flag) {
+    for (TaggedCommit tagged : tagMap.get()) {
+      walk.lookupCommit(tagged).add(flag);
+    }
   }
 
-  public ObjectId getObjectId(RevObject revObj) {
-    return Optional.ofNullable(revObj).map(RevObject::getId).orElse(null);
+  /**
+   * Returns the ref prefix that every tag matching {@code tagNameRegex} falls under, i.e.
+   * {@code refs/tags/} followed by the literal text the regex starts with.
+   */
+  public static String getRefPrefix(String tagNameRegex) {
+    return Constants.R_TAGS + getLiteralPrefix(tagNameRegex);
   }
 
-  public LinkedList<RevObject> resolveRevObject(Ref ref) {
-    ObjectId objectIdImmediate = getObjectIdImmediate(ref);
-    return resolveRevObject(objectIdImmediate);
+  /**
+   * Returns the literal text every match of {@code regex} starts with, or an empty string when
+   * the regex does not start with a literal.
+   */
+  static String getLiteralPrefix(String regex) {
+    String remaining = regex.startsWith("^") ? regex.substring(1) : regex;
+    if (hasTopLevelAlternation(remaining)) {
+      return "";
+    }
+    StringBuilder prefix = new StringBuilder();
+    int idx = 0;
+    while (idx < remaining.length()) {
+      char ch = remaining.charAt(idx);
+      int next = idx + 1;
+      if (ch == '\\') {
+        // escaped punctuation is literal, escaped letters and digits are classes or references
+        if (next >= remaining.length() || Character.isLetterOrDigit(remaining.charAt(next))) {
+          break;
+        }
+        ch = remaining.charAt(next++);
+      } else if (".[](){}*+?^$|".indexOf(ch) >= 0) {
+        break;
+      }
+      char quantifier = next < remaining.length() ? remaining.charAt(next) : 0;
+      if (quantifier == '?' || quantifier == '*' || quantifier == '{') {
+        break;
+      }
+      prefix.append(ch);
+      if (quantifier == '+') {
+        break;
+      }
+      idx = next;
+    }
+    return prefix.toString();
   }
 
-  public LinkedList<RevObject> resolveRevObject(ObjectId objectId) {
-    return getTargetRevObject(getRevObject(objectId));
+  private static boolean hasTopLevelAlternation(String regex) {
+    int depth = 0;
+    boolean inClass = false;
+    for (int idx = 0; idx < regex.length(); idx++) {
+      char ch = regex.charAt(idx);
+      if (ch == '\\') {
+        idx++;
+      } else if (inClass) {
+        inClass = ch != ']';
+      } else if (ch == '[') {
+        inClass = true;
+      } else if (ch == '(') {
+        depth++;
+      } else if (ch == ')') {
+        depth--;
+      } else if (ch == '|' && depth == 0) {
+        return true;
+      }
+    }
+    return false;
   }
 
-  private RevObject getRevObject(Ref ref) {
-    ObjectId objectIdImmediate = getObjectIdImmediate(ref);
-    return getRevObject(objectIdImmediate);
+  /**
+   * Returns false when no tag name starting with {@code ch} can match. A failed match that never
+   * reached the end of its input cannot be rescued by appending more characters.
+   */
+  private static boolean canStartMatch(Matcher matcher, char ch) {
+    return matcher.reset(String.valueOf(ch)).matches() || matcher.hitEnd();
   }
 
-  private RevObject getRevObject(ObjectId objectId) {
-    try (ObjectReader reader = git.getRepository().newObjectReader()) {
-      //    try {
-      ObjectLoader loader = reader.open(objectId);
-      int objectType = loader.getType();
-      byte[] rawData = loader.getBytes();
-      switch (objectType) {
-        case Constants.OBJ_EXT:
-          System.out.printf("\text: %s%n", objectId.getName());
-          return null;
-        case Constants.OBJ_COMMIT:
-          return RevCommit.parse(rawData);
-        case Constants.OBJ_TREE:
-          System.out.printf("\ttree: %s%n", objectId.getName());
-          return null;
-        case Constants.OBJ_BLOB:
-          String content = new String(rawData, StandardCharsets.UTF_8);
-          System.out.printf("\tblob: %s, content: %s%n", objectId.getName(), content);
-          return null;
-        case Constants.OBJ_TAG:
-          return RevTag.parse(rawData);
-        default:
-          System.out.printf("\tother: %s%n", objectId.getName());
-          return null;
-      }
-    } catch (IOException e) {
-      throw new RuntimeException(e);
+  /**
+   * Returns the object a tag ref finally points to. Refs read from packed-refs usually carry
+   * their peeled id already; any other ref is peeled through the shared walk.
+   */
+  private static ObjectId peel(RevWalk walk, Ref ref) throws IOException {
+    if (ref.isPeeled()) {
+      // packed lightweight tags are peeled but have no peeled id
+      return Optional.ofNullable(ref.getPeeledObjectId()).orElse(ref.getObjectId());
+    }
+    ObjectId objectId = ref.getObjectId();
+    if (objectId == null) {
+      return null;
     }
+    RevObject target = walk.peel(walk.parseAny(objectId));
+    return target.copy();
   }
 
-  public ObjectId getObjectIdImmediate(Ref ref) {
-    Util.check(ref.isPeeled() == (ref.getPeeledObjectId() != null));
-    return ref.isPeeled() ? ref.getPeeledObjectId() : ref.getObjectId();
-  }
+  /**
+   * A commit carrying at least one matching tag, with the greatest version among its tags.
+   */
+  public static class TaggedCommit extends ObjectIdOwnerMap.Entry {
 
-  private static LinkedList<RevObject> getTargetRevObject(RevObject revObj) {
-    return getTargetRevObject(revObj, new LinkedList<>());
-  }
+    private TagVersion version;
 
-  private static LinkedList<RevObject> getTargetRevObject(RevObject revObj, LinkedList<RevObject> results) {
-    return switch (revObj.getType()) {
-      case Constants.OBJ_COMMIT -> {
-        results.add(revObj);
-        yield results;
-      }
-      case Constants.OBJ_TAG -> {
-        // annotated tag
-        results.add(revObj);
-        RevObject target = ((RevTag) revObj).getObject();
-        if (target == null) {
-          yield results;
-        }
-        yield getTargetRevObject(target, results);
-      }
-      default -> results;
-    };
+    TaggedCommit(AnyObjectId id, TagVersion version) {
+      super(id);
+      this.version = version;
+    }
+
+    public TagVersion getVersion() {
+      return version;
+    }
   }
 }
@@ -0,0 +1,104 @@
+package org.emergent.gittle.core.git;
+
+import org.apache.maven.artifact.versioning.ComparableVersion;
+
+import java.util.Objects;
+
+/**
+ * Version parsed from a tag name, ordered the same way as Maven's {@link ComparableVersion}.
+ * <p>
+ * Plain {@code major.minor.patch} versions without leading zeros, which is nearly every release
+ * tag, are packed into a single {@code long} and compared as one. Anything else falls back to a
+ * {@link ComparableVersion}, which is also used whenever a packed version meets a fallback one.
+ */
+public final class TagVersion implements Comparable<TagVersion> {
+
+  private static final int BITS = 21;
+  private static final long MAX_PART = (1L << BITS) - 1;
+  private static final long NOT_PACKED = -1L;
+
+  private final long packed;
+  private final ComparableVersion fallback;
+
+  private TagVersion(long packed, ComparableVersion fallback) {
+    this.packed = packed;
+    this.fallback = fallback;
+  }
+
+  public static TagVersion parse(String version) {
+    Objects.requireNonNull(version, "version");
+    long packed = pack(version);
+    return packed != NOT_PACKED
+        ? new TagVersion(packed, null)
+        : new TagVersion(NOT_PACKED, new ComparableVersion(version));
+  }
+
+  /**
+   * Returns {@code major.minor.patch} packed into 63 bits, or {@link #NOT_PACKED}.
+   */
+  private static long pack(String version) {
+    long result = 0;
+    int parts = 0;
+    int idx = 0;
+    int len = version.length();
+    while (parts < 3) {
+      int start = idx;
+      long part = 0;
+      while (idx < len && version.charAt(idx) >= '0' && version.charAt(idx) <= '9') {
+        part = part * 10 + (version.charAt(idx) - '0');
+        if (part > MAX_PART) {
+          return NOT_PACKED;
+        }
+        idx++;
+      }
+      int digits = idx - start;
+      if (digits == 0 || (digits > 1 && version.charAt(start) == '0')) {
+        return NOT_PACKED;
+      }
+      result = (result << BITS) | part;
+      parts++;
+      if (parts < 3) {
+        if (idx >= len || version.charAt(idx) != '.') {
+          return NOT_PACKED;
+        }
+        idx++;
+      }
+    }
+    return idx == len ? result : NOT_PACKED;
+  }
+
+  public boolean isPacked() {
+    return packed != NOT_PACKED;
+  }
+
+  public ComparableVersion toComparableVersion() {
+    return isPacked() ? new ComparableVersion(toString()) : fallback;
+  }
+
+  @Override
+  public int compareTo(TagVersion other) {
+    if (isPacked() && other.isPacked()) {
+      return Long.compare(packed, other.packed);
+    }
+    return toComparableVersion().compareTo(other.toComparableVersion());
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return this == obj || (obj instanceof TagVersion other && compareTo(other) == 0);
+  }
+
+  @Override
+  public int hashCode() {
+    // consistent with equals, which treats e.g. 1.2.3 and 1.2.3.0 as the same version
+    return toComparableVersion().hashCode();
+  }
+
+  @Override
+  public String toString() {
+    if (!isPacked()) {
+      return fallback.toString();
+    }
+    return (packed >>> (2 * BITS)) + "." + ((packed >>> BITS) & MAX_PART) + "." + (packed & MAX_PART);
+  }
+}
@@ -0,0 +1,53 @@
+package org.emergent.gittle.core.git;
+
+import lombok.extern.java.Log;
+import org.emergent.gittle.core.Resolved;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The number of commits and the wall-clock time one history walk may spend before it gives up.
+ * A limit of zero or less means unlimited. The clock starts when the budget is created.
+ */
+@Log
+final class WalkBudget {
+
+  private static final int CLOCK_CHECK_MASK = 0x3ff;
+
+  private final int maxCommits;
+  private final long maxMillis;
+  private final long start;
+
+  WalkBudget(int maxCommits, long maxMillis) {
+    this.maxCommits = maxCommits;
+    this.maxMillis = maxMillis;
+    this.start = System.nanoTime();
+  }
+
+  /**
+   * Returns true when a walk that has already scanned {@code commits} commits must stop. The clock
+   * is only read every 1024 commits.
+   */
+  boolean isExhausted(int commits) {
+    if (maxCommits > 0 && commits >= maxCommits) {
+      return true;
+    }
+    return maxMillis > 0 && (commits & CLOCK_CHECK_MASK) == 0 && elapsedMillis() >= maxMillis;
+  }
+
+  /**
+   * Returns the degraded result of a walk stopped after {@code commits} commits, and logs why.
+   */
+  Resolved exhausted(int commits) {
+    String limit = maxCommits > 0 && commits >= maxCommits
+        ? "the limit of " + maxCommits + " commits"
+        : "the limit of " + maxMillis + " ms";
+    log.warning(() -> String.format("No tag found within %s after %d commits in %d ms, using version %s",
+        limit, commits, elapsedMillis(), Resolved.TAG_VERSION_DEF));
+    return Resolved.builder().commits(commits).limitReached(true).build();
+  }
+
+  private long elapsedMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+  }
+}
@@ -0,0 +1,123 @@
+package org.emergent.gittle.core.instrument;
+
+import lombok.extern.java.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.logging.Level;
+
+/**
+ * Reports phase timings and counters to the registered {@link InstrumentationListener}s.
+ * <p>
+ * Listeners found through {@link ServiceLoader} are registered when this class is loaded. While no
+ * listener is registered every method returns after reading a single volatile field: timers are
+ * a shared no-op, the clock is never read and nothing is allocated.
+ */
+@Log
+public final class Instrumentation {
+
+  private static final InstrumentationListener[] NONE = new InstrumentationListener[0];
+  private static final Timer NOOP = () -> {
+  };
+
+  private static volatile InstrumentationListener[] listeners = NONE;
+
+  static {
+    try {
+      ServiceLoader.load(InstrumentationListener.class, Instrumentation.class.getClassLoader())
+          .forEach(Instrumentation::register);
+    } catch (ServiceConfigurationError e) {
+      log.log(Level.WARNING, "Failed loading instrumentation listeners", e);
+    }
+  }
+
+  private Instrumentation() {
+  }
+
+  public static synchronized void register(InstrumentationListener listener) {
+    InstrumentationListener[] current = listeners;
+    InstrumentationListener[] updated = Arrays.copyOf(current, current.length + 1);
+    updated[current.length] = listener;
+    listeners = updated;
+  }
+
+  public static synchronized void unregister(InstrumentationListener listener) {
+    List<InstrumentationListener> updated = new ArrayList<>(Arrays.asList(listeners));
+    updated.remove(listener);
+    listeners = updated.isEmpty() ? NONE : updated.toArray(NONE);
+  }
+
+  public static boolean isEnabled() {
+    return listeners.length != 0;
+  }
+
+  /**
+   * Starts timing {@code phase}; the phase is reported when the returned timer is closed.
+   */
+  public static Timer time(Phase phase) {
+    if (!isEnabled()) {
+      return NOOP;
+    }
+    long start = System.nanoTime();
+    return () -> report(phase, System.nanoTime() - start);
+  }
+
+  /**
+   * Reports a phase that was timed by the caller, e.g. because it is spread over many small steps.
+   */
+  public static void report(Phase phase, long nanos) {
+    for (InstrumentationListener listener : listeners) {
+      listener.phaseCompleted(phase, nanos);
+    }
+  }
+
+  public static void count(Counter counter, long amount) {
+    for (InstrumentationListener listener : listeners) {
+      listener.counted(counter, amount);
+    }
+  }
+
+  /**
+   * Times a phase until it is closed.
+   */
+  @FunctionalInterface
+  public interface Timer extends AutoCloseable {
+    @Override
+    void close();
+  }
+
+  public enum Phase {
+    /** Resolving a version from the repository, including all the phases below. */
+    RESOLVE,
+    /** Opening a repository. */
+    REPOSITORY_OPEN,
+    /** Listing the tag refs and matching their names, including peeling. */
+    TAG_ENUMERATION,
+    /** Peeling matching tags to the commits they point to. */
+    TAG_PEEL,
+    /** Finding the nearest tag and counting the commits in front of it, cache lookups included. */
+    HISTORY_WALK,
+    /** Checking the work tree for uncommitted changes. */
+    STATUS,
+    /** Rendering the version pattern. */
+    PATTERN_RENDER,
+    /** Creating a tag. */
+    TAG_CREATE,
+    /** Creating a commit. */
+    COMMIT_CREATE
+  }
+
+  public enum Counter {
+    /** Commits visited by a history walk or counted through the commit-graph. */
+    COMMITS_VISITED,
+    /** Tag refs whose names were matched. */
+    TAGS_SCANNED,
+    /** Objects read from the object database, e.g. to peel a tag. */
+    OBJECTS_OPENED,
+    /** Work tree files whose metadata was compared with the index. */
+    FILES_STATED
+  }
+}
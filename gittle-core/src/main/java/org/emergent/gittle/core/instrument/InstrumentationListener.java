@@ -0,0 +1,22 @@
+package org.emergent.gittle.core.instrument;
+
+/**
+ * Receives phase timings and counters from gittle. Implementations are registered with
+ * {@link Instrumentation#register} or listed in
+ * {@code META-INF/services/org.emergent.gittle.core.instrument.InstrumentationListener}, and may be
+ * called from several threads at once.
+ */
+public interface InstrumentationListener {
+
+  /**
+   * Called when a phase ends, with its elapsed wall-clock time in nanoseconds.
+   */
+  default void phaseCompleted(Instrumentation.Phase phase, long nanos) {
+  }
+
+  /**
+   * Called with an amount to add to {@code counter}.
+   */
+  default void counted(Instrumentation.Counter counter, long amount) {
+  }
+}
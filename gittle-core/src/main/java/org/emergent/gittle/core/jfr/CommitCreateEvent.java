@@ -0,0 +1,25 @@
+package org.emergent.gittle.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded when {@link org.emergent.gittle.core.git.GitUtil} creates a commit.
+ */
+@Name("org.emergent.gittle.CommitCreate")
+@Label("Commit Creation")
+@Category("Gittle")
+@Description("Creates an empty commit.")
+@StackTrace(false)
+public final class CommitCreateEvent extends Event {
+
+  @Label("Repository Path")
+  public String basePath;
+
+  @Label("Native Git")
+  public boolean nativeGit;
+}
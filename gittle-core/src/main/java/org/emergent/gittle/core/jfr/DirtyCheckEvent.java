@@ -0,0 +1,28 @@
+package org.emergent.gittle.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded for each uncommitted changes check during resolution.
+ */
+@Name("org.emergent.gittle.DirtyCheck")
+@Label("Dirty Check")
+@Category("Gittle")
+@Description("Checks the work tree for uncommitted changes to tracked files.")
+@StackTrace(false)
+public final class DirtyCheckEvent extends Event {
+
+  @Label("Git Directory")
+  public String gitDir;
+
+  @Label("Backend")
+  public String backend;
+
+  @Label("Dirty")
+  public boolean dirty;
+}
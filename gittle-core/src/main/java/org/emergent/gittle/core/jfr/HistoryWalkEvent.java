@@ -0,0 +1,43 @@
+package org.emergent.gittle.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded for each history lookup during resolution, whether walked or served from the cache.
+ */
+@Name("org.emergent.gittle.HistoryWalk")
+@Label("History Walk")
+@Category("Gittle")
+@Description("Finds the nearest tag behind a commit and the number of commits in front of it.")
+@StackTrace(false)
+public final class HistoryWalkEvent extends Event {
+
+  @Label("Git Directory")
+  public String gitDir;
+
+  @Label("Backend")
+  public String backend;
+
+  @Label("Head")
+  public String head;
+
+  @Label("Tag Version")
+  public String tagVersion;
+
+  @Label("Commits Since Tag")
+  public int commitsSinceTag;
+
+  @Label("Cached")
+  public boolean cached;
+
+  @Label("Truncated")
+  public boolean truncated;
+
+  @Label("Limit Reached")
+  public boolean limitReached;
+}
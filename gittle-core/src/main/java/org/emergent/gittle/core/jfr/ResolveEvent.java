@@ -0,0 +1,34 @@
+package org.emergent.gittle.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded for each version resolved by {@link org.emergent.gittle.core.strategy.StrategyFactory}.
+ */
+@Name("org.emergent.gittle.Resolve")
+@Label("Version Resolution")
+@Category("Gittle")
+@Description("Resolves the version of a repository from its history and work tree.")
+@StackTrace(false)
+public final class ResolveEvent extends Event {
+
+  @Label("Git Directory")
+  public String gitDir;
+
+  @Label("Version")
+  public String version;
+
+  @Label("Tag Version")
+  public String tagVersion;
+
+  @Label("Commits")
+  public int commits;
+
+  @Label("Dirty")
+  public boolean dirty;
+}
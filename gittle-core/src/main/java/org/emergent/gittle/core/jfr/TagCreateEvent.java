@@ -0,0 +1,28 @@
+package org.emergent.gittle.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded when {@link org.emergent.gittle.core.git.GitUtil} creates a tag.
+ */
+@Name("org.emergent.gittle.TagCreate")
+@Label("Tag Creation")
+@Category("Gittle")
+@Description("Creates a tag on the current commit.")
+@StackTrace(false)
+public final class TagCreateEvent extends Event {
+
+  @Label("Repository Path")
+  public String basePath;
+
+  @Label("Tag Name")
+  public String tagName;
+
+  @Label("Forced")
+  public boolean force;
+}
@@ -0,0 +1,28 @@
+package org.emergent.gittle.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded when a {@link org.emergent.gittle.core.git.TagProvider} builds its tag map.
+ */
+@Name("org.emergent.gittle.TagMap")
+@Label("Tag Map")
+@Category("Gittle")
+@Description("Lists the tag refs and maps the tagged commits to their greatest matching version.")
+@StackTrace(false)
+public final class TagMapEvent extends Event {
+
+  @Label("Git Directory")
+  public String gitDir;
+
+  @Label("Tags Scanned")
+  public int tagsScanned;
+
+  @Label("Tagged Commits")
+  public int taggedCommits;
+}
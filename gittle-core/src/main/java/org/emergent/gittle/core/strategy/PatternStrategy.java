@@ -10,22 +10,17 @@ import org.emergent.gittle.core.Config;
 import org.emergent.gittle.core.Constants;
 import org.emergent.gittle.core.Resolved;
 import org.emergent.gittle.core.Util;
+import org.emergent.gittle.core.instrument.Instrumentation;
 
 import java.util.Arrays;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.EnumSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.TreeMap;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.function.Predicate;
-import java.util.regex.Matcher;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-
-import static java.util.regex.Pattern.quote;
 
 @Value
 @EqualsAndHashCode
@@ -37,6 +32,7 @@ class PatternStrategy implements VersionStrategy {
   private static final String RESOLVED_PREFIX = "resolved.";
   private static final String VERSION_PATTERN_DEF = Constants.VERSION_PATTERN_DEF;
   private static final String VERSION_DEF = Resolved.TAG_VERSION_DEF;
+  private static final Map<String, Pattern> RELEASE_BRANCH_PATTERNS = new ConcurrentHashMap<>();
 
   @NonNull
   Config config;
@@ -59,41 +55,80 @@ class PatternStrategy implements VersionStrategy {
   @Override
   public String version() {
     if (Util.isEmpty(version)) {
-      version = TokenVersionUtil.calculateVersion(config, resolved);
+      try (Instrumentation.Timer timer = Instrumentation.time(Instrumentation.Phase.PATTERN_RENDER)) {
+        VersionTemplate template = VersionTemplate.compile(config.getVersionPattern());
+        boolean isReleaseBranch = false;
+        if (template.getPhases().contains(Phase.BRANCH)) {
+          Pattern releaseBranchPattern = RELEASE_BRANCH_PATTERNS.computeIfAbsent(config.getReleaseBranchRegex(), Pattern::compile);
+          String branch = Optional.ofNullable(resolved.getBranch()).orElse("");
+          isReleaseBranch = releaseBranchPattern.matcher(branch).find();
+        }
+        version = template.render(resolved, isReleaseBranch);
+      }
     }
     return version;
   }
 
   @Override
   public Map<String, String> asMap() {
+    return asMap(resolved.asMap());
+  }
+
+  @Override
+  public Map<String, String> asResolvedMap() {
+    return asMap(resolved.asResolvedMap());
+  }
+
+  private Map<String, String> asMap(Map<String, String> resolvedMap) {
     Map<String, String> map = new TreeMap<>();
     map.putAll(config.asMap());
-    map.putAll(resolved.asMap());
+    map.putAll(resolvedMap);
     Optional.ofNullable(version())
       .filter(v -> !VERSION_DEF.equals(v))
       .ifPresent(v -> map.put(STANDARD_PREFIX + VERSION_STRING, v));
     return map;
   }
 
+  /**
+   * Returns the resolution phases needed to render the tokens used in {@code versionPattern}.
+   */
+  static Set<Phase> getPhases(String versionPattern) {
+    return VersionTemplate.compile(versionPattern).getPhases();
+  }
+
+  /**
+   * The parts of resolution that go beyond reading HEAD.
+   */
+  enum Phase {
+    /** The current branch name. */
+    BRANCH,
+    /** The history walk, yielding the tag version and commit count. */
+    HISTORY,
+    /** The check for uncommitted changes. */
+    DIRTY
+  }
+
   @Getter
   @Accessors(fluent = true)
   public enum PatternToken {
-    TAG("t"),
-    COMMIT("c"),
-    COMMIT_OPT("C"),
-    BRANCH("b"),
-    BRANCH_OPT("B"),
+    TAG("t", Phase.HISTORY),
+    COMMIT("c", Phase.HISTORY),
+    COMMIT_OPT("C", Phase.HISTORY),
+    BRANCH("b", Phase.BRANCH),
+    BRANCH_OPT("B", Phase.BRANCH),
     HASH_SHORT("h"),
-    HASH_SHORT_OPT("H"),
+    HASH_SHORT_OPT("H", Phase.BRANCH, Phase.HISTORY),
     HASH_FULL("f"),
-    HASH_FULL_OPT("F"),
-    SNAPSHOT("S"),
-    DIRTY("D");
+    HASH_FULL_OPT("F", Phase.BRANCH, Phase.HISTORY),
+    SNAPSHOT("S", Phase.HISTORY),
+    DIRTY("D", Phase.DIRTY);
 
     private final String code;
+    private final Set<Phase> phases;
 
-    PatternToken(String code) {
+    PatternToken(String code, Phase... phases) {
       this.code = code;
+      this.phases = phases.length == 0 ? EnumSet.noneOf(Phase.class) : EnumSet.copyOf(Arrays.asList(phases));
     }
 
     public String token() {
@@ -105,103 +140,4 @@ class PatternStrategy implements VersionStrategy {
       return token();
     }
   }
-
-  private static class TokenVersionUtil {
-
-    public static String calculateVersion(Config config, Resolved resolved) {
-      String pattern = config.getVersionPattern();
-      Map<String, String> values = getReplacementMap(config, resolved);
-      return performTokenReplacements(pattern, values);
-    }
-
-    private static Map<String, String> getReplacementMap(Config config, Resolved resolved) {
-      Predicate<String> releaseBranchPredicate = Pattern.compile(config.getReleaseBranchRegex()).asPredicate();
-      String branch = Optional.ofNullable(resolved.getBranch()).orElse("");
-      int commits = resolved.getCommits();
-      boolean isDirty = resolved.isDirty();
-      String hash = resolved.getHash();
-      String hashShort = Util.toShortHash(hash);
-      boolean isReleaseBranch = releaseBranchPredicate.test(branch);
-      boolean hasCommits = commits > 0;
-      boolean isRelease = isReleaseBranch && !hasCommits;
-      return Arrays.stream(PatternToken.values()).collect(Collectors.toMap(
-        PatternToken::token, t -> String.valueOf(
-          switch (t) {
-            case TAG -> resolved.getTagVersion();
-            case BRANCH -> branch;
-            case COMMIT -> commits;
-            case HASH_FULL -> hash;
-            case HASH_SHORT -> hashShort;
-            case SNAPSHOT -> hasCommits ? "SNAPSHOT" : "";
-            case COMMIT_OPT -> hasCommits ? commits : "";
-            case BRANCH_OPT -> isReleaseBranch ? "" : branch;
-            case HASH_FULL_OPT -> isRelease ? "" : hash;
-            case HASH_SHORT_OPT -> isRelease ? "" : hashShort;
-            case DIRTY -> isDirty ? "dirty" : "";
-          }
-        )
-      ));
-    }
-
-    private static String performTokenReplacements(String versionPattern, Map<String, String> codeReplMap) {
-      String codes = Arrays.stream(PatternToken.values()).map(PatternToken::code).collect(Collectors.joining());
-      String tokenRegex = quote("%") + "[" + codes + "]";
-      Pattern patternx = Pattern.compile(
-        "(?<nakedToken>" + tokenRegex + ")"
-          + "|\\("
-          + "(?<groupPrefix>[^()%]+)?(?<groupToken>" + tokenRegex + ")(?<groupSuffix>[^()%]+)?"
-          + "\\)");
-
-      Matcher m = patternx.matcher(versionPattern);
-      AtomicInteger priorEnd = new AtomicInteger(-1);
-
-      String result = m.results()
-        .flatMap(r -> {
-          String nakedToken = null;
-          String groupPrefix = null;
-          String groupToken = null;
-          String groupSuffix = null;
-          for (int ii = 1; ii <= r.groupCount(); ii++) {
-            switch (ii) {
-              case 1:
-                nakedToken = r.group(ii);
-                break;
-              case 2:
-                groupPrefix = r.group(ii);
-                break;
-              case 3:
-                groupToken = r.group(ii);
-                break;
-              case 4:
-                groupSuffix = r.group(ii);
-                break;
-            }
-          }
-
-          List<String> res = new LinkedList<>();
-          if (Util.isNotBlank(nakedToken)) {
-            res.add(Optional.ofNullable(codeReplMap.get(nakedToken)).orElse(""));
-          } else if (Util.isNotBlank(groupToken)) {
-            String repl = Optional.ofNullable(codeReplMap.get(groupToken)).orElse("");
-            if (!repl.isEmpty()) {
-              Stream.of(groupPrefix, repl, groupSuffix).filter(Util::isNotEmpty).forEach(res::add);
-            }
-          }
-
-          int priorMatchEnd = priorEnd.getAndUpdate($ -> r.end());
-          if (priorMatchEnd > -1 && priorMatchEnd < r.start()) {
-            String unmatchedPreviousSegment = versionPattern.substring(priorMatchEnd, r.start());
-            res.add(0, unmatchedPreviousSegment);
-          }
-          return res.stream();
-        })
-        .filter(Objects::nonNull)
-        .collect(Collectors.joining());
-
-      // append any remaining after the matches ran out
-      int lastMatchEndIdx = priorEnd.get();
-      result = lastMatchEndIdx < 0 ? result : result.concat(versionPattern.substring(lastMatchEndIdx));
-      return result;
-    }
-  }
 }
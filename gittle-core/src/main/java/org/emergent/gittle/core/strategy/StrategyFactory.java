@@ -1,21 +1,23 @@
 package org.emergent.gittle.core.strategy;
 
-import org.apache.maven.artifact.versioning.ComparableVersion;
 import org.eclipse.jgit.api.Git;
-import org.eclipse.jgit.api.Status;
 import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.Repository;
-import org.eclipse.jgit.revwalk.RevCommit;
-import org.eclipse.jgit.submodule.SubmoduleWalk;
 import org.emergent.gittle.core.Config;
 import org.emergent.gittle.core.Resolved;
 import org.emergent.gittle.core.Util;
+import org.emergent.gittle.core.git.GitBackend;
 import org.emergent.gittle.core.git.GitExec;
-import org.emergent.gittle.core.git.TagProvider;
+import org.emergent.gittle.core.git.ResolvedCache;
+import org.emergent.gittle.core.instrument.Instrumentation;
+import org.emergent.gittle.core.jfr.DirtyCheckEvent;
+import org.emergent.gittle.core.jfr.HistoryWalkEvent;
+import org.emergent.gittle.core.jfr.ResolveEvent;
 
 import java.io.File;
 import java.util.Optional;
+import java.util.Set;
 
 import static java.util.Objects.requireNonNull;
 
@@ -36,41 +38,128 @@ public class StrategyFactory {
         .orElseGet(() -> getPatternStrategy(config, basePath));
   }
 
+  /**
+   * Returns the strategy that renders {@code config}'s version pattern from already resolved
+   * values, without touching a repository.
+   */
+  public static VersionStrategy getInstance(Config config, Resolved resolved) {
+    return new PatternStrategy(config, resolved);
+  }
+
   private static VersionStrategy getPatternStrategy(Config config, File basePath) {
-    return GitExec.execOp(basePath, git -> {
-      return getPatternStrategy(config, git);
-    });
+    try (Instrumentation.Timer timer = Instrumentation.time(Instrumentation.Phase.RESOLVE)) {
+      return GitExec.execOp(basePath, git -> {
+        return getPatternStrategy(config, basePath, git);
+      });
+    }
   }
 
-  private static VersionStrategy getPatternStrategy(Config config, Git git) throws Exception {
+  private static VersionStrategy getPatternStrategy(Config config, File basePath, Git git) throws Exception {
+    ResolveEvent event = new ResolveEvent();
+    event.begin();
     Repository repository = git.getRepository();
     ObjectId headId = requireNonNull(repository.resolve(Constants.HEAD), "headId is null");
 
     Resolved.Builder builder = Resolved.builder()
         .gitDir(git.getRepository().getDirectory().getAbsolutePath())
-        .branch(repository.getBranch())
         .hash(headId.getName());
 
-    TagProvider tagProvider = new TagProvider(config.getTagNameRegex(), git);
-
-    int commits = 0;
-    for (RevCommit commit : git.log().add(headId).call()) {
-      boolean isMergeCommit = commit.getParentCount() > 1;
-      if (!isMergeCommit) {
-        Optional<String> tag = tagProvider.getTag(commit).map(ComparableVersion::toString);
-        if (tag.isPresent()) {
-          builder.tagVersion(tag.get());
-          break;
-        }
+    // run the phases the version pattern refers to now, and the others only if their fields are read
+    Set<PatternStrategy.Phase> phases = PatternStrategy.getPhases(config.getVersionPattern());
+    if (phases.contains(PatternStrategy.Phase.BRANCH)) {
+      builder.branch(repository.getBranch());
+    } else {
+      builder.branch(() -> GitExec.execOp(basePath, g -> {
+        return g.getRepository().getBranch();
+      }));
+    }
+    if (phases.contains(PatternStrategy.Phase.HISTORY)) {
+      builder.history(getHistory(config, git, headId));
+    } else {
+      builder.history(() -> GitExec.execOp(basePath, g -> {
+        return getHistory(config, g, headId);
+      }));
+    }
+    if (phases.contains(PatternStrategy.Phase.DIRTY)) {
+      builder.dirty(isDirty(config, git));
+    } else {
+      builder.dirty(() -> GitExec.execOp(basePath, g -> {
+        return isDirty(config, g);
+      }));
+    }
+
+    Resolved resolved = builder.build();
+    PatternStrategy strategy = new PatternStrategy(config, resolved);
+    event.end();
+    if (event.shouldCommit()) {
+      event.gitDir = resolved.getGitDir();
+      event.version = strategy.version();
+      if (phases.contains(PatternStrategy.Phase.HISTORY)) {
+        event.tagVersion = resolved.getTagVersion();
+        event.commits = resolved.getCommits();
+      }
+      if (phases.contains(PatternStrategy.Phase.DIRTY)) {
+        event.dirty = resolved.isDirty();
       }
-      commits++;
+      event.commit();
     }
-    builder.commits(commits);
+    return strategy;
+  }
 
-    Status status = git.status().setIgnoreSubmodules(SubmoduleWalk.IgnoreSubmoduleMode.UNTRACKED).call();
-    builder.dirty(!status.getUncommittedChanges().isEmpty());
+  private static Resolved getHistory(Config config, Git git, ObjectId headId) throws Exception {
+    try (Instrumentation.Timer timer = Instrumentation.time(Instrumentation.Phase.HISTORY_WALK)) {
+      return getHistory(config, git, GitBackend.getInstance(config, git), headId);
+    }
+  }
 
-    return new PatternStrategy(config, builder.build());
+  private static Resolved getHistory(Config config, Git git, GitBackend backend, ObjectId headId) throws Exception {
+    HistoryWalkEvent event = new HistoryWalkEvent();
+    event.begin();
+    Repository repository = git.getRepository();
+    ResolvedCache cache = config.isCacheEnabled() ? ResolvedCache.getInstance(repository) : null;
+    String key = cache != null ? cache.createKey(repository, headId, config) : null;
+    Optional<Resolved> cached = cache != null ? cache.get(key) : Optional.empty();
+    Resolved history = cached.orElse(null);
+    if (history == null) {
+      history = backend.walk(headId);
+      if (cache != null && !history.isLimitReached() && !history.isTruncated()) {
+        // a walk cut short by a limit or a clone boundary is not the real answer
+        cache.put(key, history);
+      }
+    }
+    event.end();
+    if (event.shouldCommit()) {
+      event.gitDir = repository.getDirectory().getAbsolutePath();
+      event.backend = backend.getClass().getSimpleName();
+      event.head = headId.getName();
+      event.tagVersion = history.getTagVersion();
+      event.commitsSinceTag = history.getCommits();
+      event.cached = cached.isPresent();
+      event.truncated = history.isTruncated();
+      event.limitReached = history.isLimitReached();
+      event.commit();
+    }
+    return history;
+  }
+
+  private static boolean isDirty(Config config, Git git) throws Exception {
+    try (Instrumentation.Timer timer = Instrumentation.time(Instrumentation.Phase.STATUS)) {
+      return isDirty(git.getRepository(), GitBackend.getInstance(config, git));
+    }
+  }
+
+  private static boolean isDirty(Repository repository, GitBackend backend) throws Exception {
+    DirtyCheckEvent event = new DirtyCheckEvent();
+    event.begin();
+    boolean dirty = backend.isDirty();
+    event.end();
+    if (event.shouldCommit()) {
+      event.gitDir = repository.getDirectory().getAbsolutePath();
+      event.backend = backend.getClass().getSimpleName();
+      event.dirty = dirty;
+      event.commit();
+    }
+    return dirty;
   }
 
 }
@@ -0,0 +1,323 @@
+package org.emergent.gittle.core.strategy;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevFlag;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.emergent.gittle.core.Config;
+import org.emergent.gittle.core.GittleException;
+import org.emergent.gittle.core.Resolved;
+import org.emergent.gittle.core.Util;
+import org.emergent.gittle.core.git.GitExec;
+import org.emergent.gittle.core.git.HistoryWalker;
+import org.emergent.gittle.core.git.TagProvider;
+import org.emergent.gittle.core.git.TagVersion;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streams the version of every commit reachable from a head commit, each resolving to the same
+ * tag and commit count as a {@link StrategyFactory} run with that commit checked out.
+ * <p>
+ * History is walked once, newest first. A commit with a single parent is either tagged itself or
+ * one commit further from its parent's tag, because the walk from it pops it and then continues
+ * exactly as the walk from the parent would. Such a commit is streamed as soon as its parent is
+ * resolved, so a tagged commit comes before its own parents and its descendants after it. The
+ * walk from a merge commit interleaves the histories of all its parents by commit date, so no
+ * parent's answer carries over and each merge is resolved with a walk of its own, which stops at
+ * the first tag like any other resolution. In first-parent mode a merge continues from its first
+ * parent like any other commit and no extra walks are made.
+ * <p>
+ * Only the frontier of the walk is kept: commits waiting for their parent, and parents that are
+ * resolved while a child still waits for them. Commit bodies are never retained, and each
+ * {@link Entry} is built only when the commit resolves.
+ * <p>
+ * The returned stream holds an open walk and must be closed.
+ */
+public final class VersionHistory {
+
+  private VersionHistory() {
+  }
+
+  /**
+   * A commit together with its resolution and rendered version.
+   */
+  public record Entry(ObjectId commit, Resolved resolved, String version) {
+  }
+
+  /**
+   * Writes one tab separated {@code hash version tagVersion commits} line per commit reachable from
+   * {@code headRev} but not from {@code sinceRev}, which may be empty. Returns the number of lines.
+   */
+  public static int write(Config config, File basePath, String headRev, String sinceRev, Writer out) {
+    return GitExec.execOp(basePath, git -> {
+      Repository repository = git.getRepository();
+      ObjectId headId = resolve(repository, headRev);
+      ObjectId sinceId = Util.isNotEmpty(sinceRev) ? resolve(repository, sinceRev) : null;
+      int count = 0;
+      try (Stream<Entry> entries = stream(config, git, headId, sinceId)) {
+        for (Iterator<Entry> it = entries.iterator(); it.hasNext(); count++) {
+          Entry entry = it.next();
+          out.write(entry.commit().getName());
+          out.write('\t');
+          out.write(entry.version());
+          out.write('\t');
+          out.write(entry.resolved().getTagVersion());
+          out.write('\t');
+          out.write(Integer.toString(entry.resolved().getCommits()));
+          out.write('\n');
+        }
+      }
+      out.flush();
+      return count;
+    });
+  }
+
+  private static ObjectId resolve(Repository repository, String revision) throws IOException {
+    ObjectId id = repository.resolve(revision + "^{commit}");
+    if (id == null) {
+      throw new GittleException("Cannot resolve revision: " + revision);
+    }
+    return id;
+  }
+
+  public static Stream<Entry> stream(Config config, Git git, ObjectId headId) throws IOException {
+    return stream(config, git, headId, null);
+  }
+
+  /**
+   * Streams the commits reachable from {@code headId} but not from {@code sinceId}, which may be
+   * null to stream the entire history.
+   */
+  public static Stream<Entry> stream(Config config, Git git, ObjectId headId, ObjectId sinceId) throws IOException {
+    List<ObjectId> excluded = sinceId != null ? List.of(sinceId) : List.of();
+    return stream(config, git, headId, excluded, id -> Optional.empty());
+  }
+
+  /**
+   * Streams the commits reachable from {@code headId} but from none of {@code excluded}. Parents on
+   * the boundary of the range are looked up in {@code known} before falling back to a walk.
+   */
+  static Stream<Entry> stream(Config config, Git git, ObjectId headId, Collection<? extends ObjectId> excluded,
+                              Function<ObjectId, Optional<Resolved>> known) throws IOException {
+    EntryIterator iterator = new EntryIterator(config, git, headId, excluded, known);
+    int characteristics = Spliterator.ORDERED | Spliterator.NONNULL;
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, characteristics), false)
+        .onClose(iterator::close);
+  }
+
+  private static final class EntryIterator implements Iterator<Entry>, AutoCloseable {
+
+    private final Config config;
+    private final TagProvider tagProvider;
+    private final HistoryWalker historyWalker;
+    private final String gitDir;
+    private final String branch;
+    private final RevWalk walk;
+    private final Function<ObjectId, Optional<Resolved>> known;
+    private final Map<ObjectId, Node> frontier = new HashMap<>();
+    private final Deque<Entry> ready = new ArrayDeque<>();
+    private boolean exhausted;
+
+    EntryIterator(Config config, Git git, ObjectId headId, Collection<? extends ObjectId> excluded,
+                  Function<ObjectId, Optional<Resolved>> known) throws IOException {
+      this.config = Objects.requireNonNull(config, "config");
+      this.known = Objects.requireNonNull(known, "known");
+      Repository repository = git.getRepository();
+      this.tagProvider = new TagProvider(config.getTagNameRegex(), git);
+      this.historyWalker = new HistoryWalker(repository, tagProvider, config.isFirstParent());
+      this.gitDir = repository.getDirectory().getAbsolutePath();
+      this.branch = PatternStrategy.getPhases(config.getVersionPattern()).contains(PatternStrategy.Phase.BRANCH)
+          ? repository.getBranch()
+          : null;
+      this.walk = new RevWalk(repository);
+      try {
+        walk.setRetainBody(false);
+        walk.markStart(walk.parseCommit(headId));
+        for (ObjectId id : excluded) {
+          walk.markUninteresting(walk.parseCommit(id));
+        }
+      } catch (IOException | RuntimeException e) {
+        walk.close();
+        throw e;
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      try {
+        while (ready.isEmpty() && !exhausted) {
+          RevCommit commit = walk.next();
+          if (commit != null) {
+            visit(commit);
+          } else {
+            exhausted = true;
+            resolveBoundary();
+          }
+        }
+      } catch (IOException e) {
+        throw new GittleException(e.getMessage(), e);
+      }
+      return !ready.isEmpty();
+    }
+
+    @Override
+    public Entry next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return ready.poll();
+    }
+
+    private void visit(RevCommit commit) throws IOException {
+      Node node = frontier.computeIfAbsent(commit.copy(), Node::new);
+      boolean isMergeCommit = commit.getParentCount() > 1;
+      // tags on merge commits never count
+      TagVersion tag = isMergeCommit ? null : tagProvider.getTag(commit).orElse(null);
+      if (tag != null) {
+        node.set(tag, -1);
+      } else if (commit.getParentCount() == 0) {
+        node.set(TagVersion.parse(Resolved.TAG_VERSION_DEF), 0);
+      } else if (isMergeCommit && !config.isFirstParent()) {
+        node.set(historyWalker.walk(commit));
+      } else {
+        RevCommit parent = commit.getParent(0);
+        Node parentNode = frontier.computeIfAbsent(parent.copy(), Node::new);
+        if (parentNode.resolved) {
+          node.set(parentNode.tag, parentNode.commits + 1);
+        } else {
+          parentNode.children.add(node);
+          node.pending = true;
+          if (parent.has(RevFlag.UNINTERESTING) && !parentNode.visited) {
+            resolveBoundary(parentNode);
+          }
+        }
+      }
+      node.visited = true;
+      if (!node.pending) {
+        resolve(node);
+      }
+    }
+
+    /**
+     * Resolves the parents that waiting children found outside the range once the walk ends.
+     */
+    private void resolveBoundary() throws IOException {
+      for (Node node : List.copyOf(frontier.values())) {
+        if (!node.visited) {
+          resolveBoundary(node);
+        }
+      }
+    }
+
+    /**
+     * Parents on the boundary of the range are looked up in {@code known} or walked, and are never
+     * streamed themselves.
+     */
+    private void resolveBoundary(Node node) throws IOException {
+      Resolved resolved = known.apply(node.id).orElse(null);
+      if (resolved == null) {
+        resolved = historyWalker.walk(node.id);
+      }
+      node.boundary = true;
+      node.visited = true;
+      node.set(resolved);
+      resolve(node);
+    }
+
+    /**
+     * Streams {@code node} unless it is on the boundary, then hands it to its waiting children and
+     * streams every child left with nothing to wait for.
+     */
+    private void resolve(Node node) {
+      Deque<Node> resolvable = new ArrayDeque<>();
+      resolvable.add(node);
+      while (!resolvable.isEmpty()) {
+        Node current = resolvable.poll();
+        current.resolved = true;
+        int commits = current.commits + 1;
+        if (!current.boundary) {
+          // children are walked before their parents, while boundary parents may be shared by children walked later
+          frontier.remove(current.id);
+          ready.add(entry(current.id, current.tag.toString(), commits));
+        }
+        for (Node child : current.children) {
+          child.set(current.tag, commits);
+          child.pending = false;
+          if (child.visited) {
+            resolvable.add(child);
+          }
+        }
+        current.children.clear();
+      }
+    }
+
+    private Entry entry(ObjectId commit, String tagVersion, int commits) {
+      Resolved resolved = Resolved.builder()
+          .gitDir(gitDir)
+          .branch(branch)
+          .hash(commit.getName())
+          .tagVersion(tagVersion)
+          .commits(commits)
+          .build();
+      return new Entry(commit, resolved, new PatternStrategy(config, resolved).version());
+    }
+
+    @Override
+    public void close() {
+      walk.close();
+    }
+  }
+
+  /**
+   * A commit on the frontier of the walk, with the tag and count it resolves from and the children
+   * waiting for it. The count is one less than the commit's own, as it is for its parent.
+   */
+  private static final class Node {
+
+    private final ObjectId id;
+    private final List<Node> children = new ArrayList<>(1);
+    private TagVersion tag;
+    private int commits;
+    private boolean pending;
+    private boolean visited;
+    private boolean boundary;
+    private boolean resolved;
+
+    Node(ObjectId id) {
+      this.id = id;
+    }
+
+    void set(TagVersion tag, int commits) {
+      this.tag = tag;
+      this.commits = commits;
+    }
+
+    /**
+     * Takes the tag and count of a resolution of this commit itself.
+     */
+    void set(Resolved resolved) {
+      set(TagVersion.parse(resolved.getTagVersion()), resolved.getCommits() - 1);
+    }
+  }
+}
@@ -0,0 +1,368 @@
+package org.emergent.gittle.core.strategy;
+
+import lombok.extern.java.Log;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.emergent.gittle.core.Config;
+import org.emergent.gittle.core.GittleException;
+import org.emergent.gittle.core.Resolved;
+import org.emergent.gittle.core.git.GitExec;
+import org.emergent.gittle.core.git.ResolvedCache;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.stream.Stream;
+
+/**
+ * Index of the tag version and commit count of every indexed commit, stored in
+ * {@code <gitDir>/gittle/version-index}.
+ * <p>
+ * The file holds a header, the tips the index was built from, a table of tag versions and then
+ * one fixed size record per commit sorted by object id: the 20 byte id, the index of its tag
+ * version, its commit count and flags. The file is mapped read-only, and a lookup is a binary
+ * search of the mapped records that does not touch the repository. Records are produced by
+ * {@link VersionHistory}, so every commit resolves exactly as a {@link StrategyFactory} run with it
+ * checked out would.
+ * <p>
+ * The header carries a digest of the tag refs. {@link #updateTo} extends the index with the commits
+ * that are not reachable from any indexed tip, replacing the tips the new one descends from, and
+ * rebuilds it from scratch when a tag was added, moved or removed. The file is never modified in
+ * place: it is written to a temporary file that is atomically renamed over it, so an open index
+ * keeps reading the file it mapped.
+ */
+@Log
+public final class VersionIndex {
+
+  /**
+   * The commit carries the tag itself.
+   */
+  public static final int FLAG_TAGGED = 1;
+
+  private static final String INDEX_FILE = "gittle/version-index";
+  private static final int MAGIC = 0x47544c49;
+  // format 1 carried parent tags across merges instead of resolving them
+  private static final int FORMAT = 2;
+  private static final int HEADER_SIZE = 44;
+  private static final int RECORD_SIZE = Constants.OBJECT_ID_LENGTH + 12;
+
+  private final Config config;
+  private final ObjectId tagsKey;
+  private final List<ObjectId> tips;
+  private final String[] tagVersions;
+  private final ByteBuffer records;
+  private final int size;
+
+  private VersionIndex(Config config, ObjectId tagsKey, List<ObjectId> tips, String[] tagVersions,
+                       ByteBuffer records, int size) {
+    this.config = config;
+    this.tagsKey = tagsKey;
+    this.tips = tips;
+    this.tagVersions = tagVersions;
+    this.records = records;
+    this.size = size;
+  }
+
+  public static Path getPath(Repository repository) {
+    return repository.getDirectory().toPath().resolve(INDEX_FILE);
+  }
+
+  /**
+   * Reads the index of the repository, or returns empty when there is none or when tags changed
+   * since it was written.
+   */
+  public static Optional<VersionIndex> open(Config config, Repository repository) throws IOException {
+    ObjectId tagsKey = ObjectId.fromString(ResolvedCache.createTagsKey(repository, config));
+    return read(config, getPath(repository)).filter(index -> index.tagsKey.equals(tagsKey));
+  }
+
+  /**
+   * Brings the index of the repository containing {@code basePath} up to date with the commits
+   * reachable from {@code headRev}. Returns the number of commits added.
+   */
+  public static int update(Config config, File basePath, String headRev) {
+    return GitExec.execOp(basePath, git -> {
+      ObjectId headId = git.getRepository().resolve(headRev + "^{commit}");
+      if (headId == null) {
+        throw new GittleException("Cannot resolve revision: " + headRev);
+      }
+      return updateTo(config, git, headId);
+    });
+  }
+
+  /**
+   * Brings the index up to date with the commits reachable from {@code headId}. Returns the number
+   * of commits added.
+   */
+  public static int updateTo(Config config, Git git, ObjectId headId) throws IOException {
+    Repository repository = git.getRepository();
+    VersionIndex index = open(config, repository).orElse(null);
+    if (index != null && index.lookup(headId).isPresent()) {
+      return 0;
+    }
+    List<ObjectId> tips = index != null ? index.tips : List.of();
+    List<Record> added = new ArrayList<>();
+    try (Stream<VersionHistory.Entry> entries = VersionHistory.stream(config, git, headId, tips,
+        id -> Optional.ofNullable(index).flatMap(i -> i.lookup(id)).map(Record::toResolved))) {
+      entries.forEach(entry -> added.add(Record.of(entry)));
+    }
+    added.sort(Comparator.naturalOrder());
+
+    Set<ObjectId> newTips = new LinkedHashSet<>();
+    try (RevWalk walk = new RevWalk(repository)) {
+      RevCommit head = walk.parseCommit(headId);
+      for (ObjectId tip : tips) {
+        // a tip the new head descends from no longer bounds anything the head does not
+        if (!walk.isMergedInto(walk.parseCommit(tip), head)) {
+          newTips.add(tip);
+        }
+      }
+      newTips.add(head.copy());
+    }
+    ObjectId tagsKey = ObjectId.fromString(ResolvedCache.createTagsKey(repository, config));
+    write(getPath(repository), tagsKey, newTips, index, added);
+    return added.size();
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the tips the index was built from, none of which descends from another.
+   */
+  public List<ObjectId> getTips() {
+    return tips;
+  }
+
+  /**
+   * Returns the record of {@code commitId}, or empty when it is not indexed.
+   */
+  public Optional<Record> lookup(AnyObjectId commitId) {
+    int pos = find(commitId);
+    return pos >= 0 ? Optional.of(recordAt(pos)) : Optional.empty();
+  }
+
+  /**
+   * Returns the version {@code commitId} renders to on {@code branch}, which may be null, or
+   * empty when the commit is not indexed.
+   */
+  public Optional<String> version(AnyObjectId commitId, String branch) {
+    return lookup(commitId).map(record -> {
+      Resolved resolved = record.toResolved().toBuilder().branch(branch).build();
+      return new PatternStrategy(config, resolved).version();
+    });
+  }
+
+  private int find(AnyObjectId id) {
+    byte[] raw = new byte[Constants.OBJECT_ID_LENGTH];
+    id.copyRawTo(raw, 0);
+    int low = 0;
+    int high = size - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int cmp = compare(mid * RECORD_SIZE, raw);
+      if (cmp < 0) {
+        low = mid + 1;
+      } else if (cmp > 0) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -1;
+  }
+
+  private int compare(int offset, byte[] raw) {
+    for (int i = 0; i < raw.length; i++) {
+      int cmp = Integer.compare(records.get(offset + i) & 0xff, raw[i] & 0xff);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return 0;
+  }
+
+  private Record recordAt(int pos) {
+    int offset = pos * RECORD_SIZE;
+    byte[] raw = new byte[Constants.OBJECT_ID_LENGTH];
+    records.get(offset, raw);
+    int tag = records.getInt(offset + Constants.OBJECT_ID_LENGTH);
+    int commits = records.getInt(offset + Constants.OBJECT_ID_LENGTH + 4);
+    int flags = records.getInt(offset + Constants.OBJECT_ID_LENGTH + 8);
+    return new Record(ObjectId.fromRaw(raw), tagVersions[tag], commits, flags);
+  }
+
+  private static Optional<VersionIndex> read(Config config, Path file) throws IOException {
+    if (!Files.isRegularFile(file)) {
+      return Optional.empty();
+    }
+    ByteBuffer buf;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    try {
+      if (buf.getInt(0) != MAGIC || buf.getInt(4) != FORMAT) {
+        return Optional.empty();
+      }
+      byte[] raw = new byte[Constants.OBJECT_ID_LENGTH];
+      buf.get(8, raw);
+      ObjectId tagsKey = ObjectId.fromRaw(raw);
+      int tipCount = buf.getInt(28);
+      int tagCount = buf.getInt(32);
+      int size = buf.getInt(36);
+      int recordsOffset = buf.getInt(40);
+      int pos = HEADER_SIZE;
+      List<ObjectId> tips = new ArrayList<>(tipCount);
+      for (int i = 0; i < tipCount; i++, pos += Constants.OBJECT_ID_LENGTH) {
+        buf.get(pos, raw);
+        tips.add(ObjectId.fromRaw(raw));
+      }
+      String[] tagVersions = new String[tagCount];
+      for (int i = 0; i < tagCount; i++) {
+        byte[] bytes = new byte[buf.getShort(pos) & 0xffff];
+        buf.get(pos + 2, bytes);
+        tagVersions[i] = new String(bytes, StandardCharsets.UTF_8);
+        pos += 2 + bytes.length;
+      }
+      if (recordsOffset < pos || (long) recordsOffset + (long) size * RECORD_SIZE != buf.capacity()) {
+        return Optional.empty();
+      }
+      ByteBuffer records = buf.slice(recordsOffset, size * RECORD_SIZE);
+      return Optional.of(new VersionIndex(config, tagsKey, List.copyOf(tips), tagVersions, records, size));
+    } catch (IndexOutOfBoundsException e) {
+      log.log(Level.FINE, "Ignoring unreadable version index " + file, e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Writes the records of {@code index}, if any, merged with {@code added}, which must be sorted
+   * and must not contain indexed commits.
+   */
+  private static void write(Path file, ObjectId tagsKey, Set<ObjectId> tips, VersionIndex index, List<Record> added)
+      throws IOException {
+    Map<String, Integer> tagIds = new HashMap<>();
+    List<String> tagVersions = new ArrayList<>();
+    if (index != null) {
+      for (String tagVersion : index.tagVersions) {
+        tagIds.put(tagVersion, tagVersions.size());
+        tagVersions.add(tagVersion);
+      }
+    }
+    for (Record record : added) {
+      tagIds.computeIfAbsent(record.tagVersion(), v -> {
+        tagVersions.add(v);
+        return tagVersions.size() - 1;
+      });
+    }
+    int oldSize = index != null ? index.size : 0;
+    int recordsOffset = HEADER_SIZE + tips.size() * Constants.OBJECT_ID_LENGTH;
+    for (String tagVersion : tagVersions) {
+      recordsOffset += 2 + tagVersion.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    Path dir = file.getParent();
+    Files.createDirectories(dir);
+    Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+    try {
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT);
+        tagsKey.copyRawTo(out);
+        out.writeInt(tips.size());
+        out.writeInt(tagVersions.size());
+        out.writeInt(oldSize + added.size());
+        out.writeInt(recordsOffset);
+        for (ObjectId tip : tips) {
+          tip.copyRawTo(out);
+        }
+        for (String tagVersion : tagVersions) {
+          byte[] bytes = tagVersion.getBytes(StandardCharsets.UTF_8);
+          out.writeShort(bytes.length);
+          out.write(bytes);
+        }
+        int i = 0;
+        int j = 0;
+        while (i < oldSize || j < added.size()) {
+          if (j == added.size() || (i < oldSize && index.recordAt(i).compareTo(added.get(j)) < 0)) {
+            index.recordAt(i++).writeTo(out, tagIds);
+          } else {
+            added.get(j++).writeTo(out, tagIds);
+          }
+        }
+      }
+      move(tmp, file);
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  private static void move(Path source, Path target) throws IOException {
+    try {
+      Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * An indexed commit with its tag version, commit count and flags.
+   */
+  public record Record(ObjectId commit, String tagVersion, int commits, int flags) implements Comparable<Record> {
+
+    static Record of(VersionHistory.Entry entry) {
+      Resolved resolved = entry.resolved();
+      // untagged history counts the root commit too, so only a tagged commit is zero commits away
+      int flags = resolved.getCommits() == 0 ? FLAG_TAGGED : 0;
+      return new Record(entry.commit(), resolved.getTagVersion(), resolved.getCommits(), flags);
+    }
+
+    public boolean isTagged() {
+      return (flags & FLAG_TAGGED) != 0;
+    }
+
+    public Resolved toResolved() {
+      return Resolved.builder()
+          .hash(commit.getName())
+          .tagVersion(tagVersion)
+          .commits(commits)
+          .build();
+    }
+
+    @Override
+    public int compareTo(Record other) {
+      return commit.compareTo(other.commit);
+    }
+
+    private void writeTo(DataOutputStream out, Map<String, Integer> tagIds) throws IOException {
+      commit.copyRawTo(out);
+      out.writeInt(tagIds.get(tagVersion));
+      out.writeInt(commits);
+      out.writeInt(flags);
+    }
+  }
+}
@@ -17,4 +17,12 @@ public interface VersionStrategy {
 
   Map<String, String> asMap();
 
+  /**
+   * Returns {@link #asMap()} without the values of resolution phases the version did not need,
+   * so that exporting them does not run those phases.
+   */
+  default Map<String, String> asResolvedMap() {
+    return asMap();
+  }
+
 }
@@ -0,0 +1,186 @@
+package org.emergent.gittle.core.strategy;
+
+import org.emergent.gittle.core.Resolved;
+import org.emergent.gittle.core.Util;
+import org.emergent.gittle.core.strategy.PatternStrategy.Phase;
+import org.emergent.gittle.core.strategy.PatternStrategy.PatternToken;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A version pattern compiled into literal, token and optional group nodes.
+ * <p>
+ * A group is a single token wrapped in parenthesis together with literal text, e.g. {@code (-%C)},
+ * and is left out entirely when its token renders empty. Anything else between or after tokens and
+ * well formed groups is literal text, while text before the first of them is dropped, so a pattern
+ * without any token renders empty. Templates are immutable and cached per pattern string, so
+ * rendering is a single pass appending to one {@link StringBuilder}.
+ */
+final class VersionTemplate {
+
+  private static final Map<String, VersionTemplate> CACHE = new ConcurrentHashMap<>();
+  private static final PatternToken[] TOKENS = new PatternToken[128];
+
+  static {
+    for (PatternToken token : PatternToken.values()) {
+      TOKENS[token.code().charAt(0)] = token;
+    }
+  }
+
+  private final String pattern;
+  private final Node[] nodes;
+  private final Set<Phase> phases;
+
+  private VersionTemplate(String pattern) {
+    this.pattern = pattern;
+    this.nodes = parse(pattern).toArray(new Node[0]);
+    Set<Phase> used = EnumSet.noneOf(Phase.class);
+    for (Node node : nodes) {
+      if (node.token != null) {
+        used.addAll(node.token.phases());
+      }
+    }
+    this.phases = Collections.unmodifiableSet(used);
+  }
+
+  static VersionTemplate compile(String pattern) {
+    return CACHE.computeIfAbsent(pattern, VersionTemplate::new);
+  }
+
+  /**
+   * Returns the resolution phases needed to render this template.
+   */
+  Set<Phase> getPhases() {
+    return phases;
+  }
+
+  String render(Resolved resolved, boolean isReleaseBranch) {
+    StringBuilder sb = new StringBuilder(pattern.length() + 64);
+    for (Node node : nodes) {
+      if (node.token == null) {
+        sb.append(node.prefix);
+        continue;
+      }
+      int start = sb.length();
+      sb.append(node.prefix);
+      int valueStart = sb.length();
+      appendValue(sb, node.token, resolved, isReleaseBranch);
+      if (node.group && sb.length() == valueStart) {
+        sb.setLength(start);
+      } else {
+        sb.append(node.suffix);
+      }
+    }
+    return sb.toString();
+  }
+
+  private static void appendValue(StringBuilder sb, PatternToken token, Resolved resolved, boolean isReleaseBranch) {
+    // only read the fields the token needs, a skipped phase resolves on first read
+    switch (token) {
+      case TAG -> sb.append(resolved.getTagVersion());
+      case BRANCH -> sb.append(branchOf(resolved));
+      case COMMIT -> sb.append(resolved.getCommits());
+      case HASH_FULL -> sb.append(resolved.getHash());
+      case HASH_SHORT -> sb.append(Util.toShortHash(resolved.getHash()));
+      case SNAPSHOT -> sb.append(resolved.getCommits() > 0 ? "SNAPSHOT" : "");
+      case COMMIT_OPT -> {
+        if (resolved.getCommits() > 0) {
+          sb.append(resolved.getCommits());
+        }
+      }
+      case BRANCH_OPT -> sb.append(isReleaseBranch ? "" : branchOf(resolved));
+      case HASH_FULL_OPT -> sb.append(isRelease(resolved, isReleaseBranch) ? "" : resolved.getHash());
+      case HASH_SHORT_OPT -> sb.append(isRelease(resolved, isReleaseBranch) ? "" : Util.toShortHash(resolved.getHash()));
+      case DIRTY -> sb.append(resolved.isDirty() ? "dirty" : "");
+    }
+  }
+
+  private static String branchOf(Resolved resolved) {
+    return resolved.getBranch() != null ? resolved.getBranch() : "";
+  }
+
+  private static boolean isRelease(Resolved resolved, boolean isReleaseBranch) {
+    return isReleaseBranch && resolved.getCommits() <= 0;
+  }
+
+  private static List<Node> parse(String pattern) {
+    List<Node> nodes = new ArrayList<>();
+    StringBuilder literal = new StringBuilder();
+    int idx = 0;
+    while (idx < pattern.length()) {
+      PatternToken token = tokenAt(pattern, idx);
+      if (token != null) {
+        flush(literal, nodes);
+        nodes.add(new Node("", token, "", false));
+        idx += 2;
+        continue;
+      }
+      if (pattern.charAt(idx) == '(') {
+        int end = parseGroup(pattern, idx, nodes, literal);
+        if (end > idx) {
+          idx = end;
+          continue;
+        }
+      }
+      literal.append(pattern.charAt(idx++));
+    }
+    flush(literal, nodes);
+    return nodes;
+  }
+
+  /**
+   * Parses {@code (prefix%Xsuffix)} starting at {@code open}, returning the index after the closing
+   * parenthesis, or {@code open} when there is no well formed group there.
+   */
+  private static int parseGroup(String pattern, int open, List<Node> nodes, StringBuilder literal) {
+    int prefixEnd = skipGroupText(pattern, open + 1);
+    PatternToken token = tokenAt(pattern, prefixEnd);
+    if (token == null) {
+      return open;
+    }
+    int suffixEnd = skipGroupText(pattern, prefixEnd + 2);
+    if (suffixEnd >= pattern.length() || pattern.charAt(suffixEnd) != ')') {
+      return open;
+    }
+    flush(literal, nodes);
+    nodes.add(new Node(pattern.substring(open + 1, prefixEnd), token, pattern.substring(prefixEnd + 2, suffixEnd), true));
+    return suffixEnd + 1;
+  }
+
+  private static int skipGroupText(String pattern, int idx) {
+    while (idx < pattern.length() && "()%".indexOf(pattern.charAt(idx)) < 0) {
+      idx++;
+    }
+    return idx;
+  }
+
+  private static PatternToken tokenAt(String pattern, int idx) {
+    if (idx + 1 >= pattern.length() || pattern.charAt(idx) != '%') {
+      return null;
+    }
+    char code = pattern.charAt(idx + 1);
+    return code < TOKENS.length ? TOKENS[code] : null;
+  }
+
+  private static void flush(StringBuilder literal, List<Node> nodes) {
+    // text before the first token or group has never been part of the version
+    if (nodes.isEmpty()) {
+      literal.setLength(0);
+    } else if (!literal.isEmpty()) {
+      nodes.add(new Node(literal.toString(), null, "", false));
+      literal.setLength(0);
+    }
+  }
+
+  /**
+   * A literal (no token), a bare token, or a group that is dropped when its token renders empty.
+   */
+  private record Node(String prefix, PatternToken token, String suffix, boolean group) {
+  }
+}
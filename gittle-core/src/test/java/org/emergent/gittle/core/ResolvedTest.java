@@ -0,0 +1,50 @@
+package org.emergent.gittle.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResolvedTest {
+
+  @Test
+  public void lazyValuesTakePartInEquality() {
+    Resolved first = Resolved.builder()
+        .hash("0123456789abcdef")
+        .history(() -> Resolved.builder().tagVersion("1.0.0").commits(1).build())
+        .dirty(() -> false)
+        .build();
+    Resolved second = first.toBuilder()
+        .history(() -> Resolved.builder().tagVersion("2.0.0").commits(3).build())
+        .build();
+    Resolved eager = Resolved.builder()
+        .hash("0123456789abcdef")
+        .tagVersion("1.0.0")
+        .commits(1)
+        .dirty(false)
+        .build();
+
+    assertThat(first).isNotEqualTo(second);
+    assertThat(first).isEqualTo(eager).hasSameHashCodeAs(eager);
+    assertThat(second.toString()).contains("tagVersion=2.0.0", "commits=3");
+  }
+
+  @Test
+  public void resolvedMapLeavesOutPendingFields() {
+    Resolved resolved = Resolved.builder()
+        .hash("0123456789abcdef")
+        .branch(() -> {
+          throw new AssertionError("branch was read");
+        })
+        .history(Resolved.builder().tagVersion("1.0.0").commits(2).build())
+        .dirty(() -> {
+          throw new AssertionError("dirty was read");
+        })
+        .build();
+
+    assertThat(resolved.asResolvedMap())
+        .containsEntry("gittle.resolved.tagVersion", "1.0.0")
+        .containsEntry("gittle.resolved.commits", "2")
+        .containsKey("gittle.resolved.hashShort")
+        .doesNotContainKeys("gittle.resolved.branch", "gittle.resolved.dirty");
+  }
+}
@@ -0,0 +1,73 @@
+package org.emergent.gittle.core.git;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.List;
+import java.util.OptionalInt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BitmapCounterTest {
+
+  @TempDir
+  File tempDir;
+
+  @Test
+  public void noBitmapsWithoutPack() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      fixture.commit("initial");
+      try (ObjectReader reader = fixture.git().getRepository().newObjectReader()) {
+        assertThat(BitmapCounter.getInstance(reader)).isNull();
+      }
+    }
+  }
+
+  @Test
+  public void countsPackedAndLooseCommits() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      RevCommit initial = fixture.commit("initial");
+      fixture.checkout("side", true);
+      fixture.commit("side one");
+      RevCommit side = fixture.commit("side two");
+      fixture.checkout("main", false);
+      fixture.commit("main one");
+      fixture.merge(side, "merge side");
+      fixture.gc(false);
+      assertThat(count(fixture.git().getRepository(), List.of())).hasValue(5);
+
+      // commits made after the repack are not covered by any bitmap
+      RevCommit loose = fixture.commit("main two");
+      fixture.commit("main three");
+      Repository repository = fixture.git().getRepository();
+      assertThat(count(repository, List.of())).hasValue(7);
+      assertThat(count(repository, List.of(side.getId()))).isEmpty();
+      assertThat(count(repository, List.of(loose.getId()))).isEmpty();
+      assertThat(count(repository, List.of(initial.getId()))).isEmpty();
+    }
+  }
+
+  @Test
+  public void ignoresUnreachableCommits() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      fixture.commit("initial");
+      fixture.checkout("side", true);
+      RevCommit side = fixture.commit("side one");
+      fixture.checkout("main", false);
+      fixture.commit("main one");
+      fixture.gc(false);
+      assertThat(count(fixture.git().getRepository(), List.of(side.getId()))).hasValue(2);
+    }
+  }
+
+  private static OptionalInt count(Repository repository, List<ObjectId> stopAt) throws Exception {
+    try (ObjectReader reader = repository.newObjectReader()) {
+      return BitmapCounter.getInstance(reader).count(repository.resolve("HEAD"), stopAt);
+    }
+  }
+}
@@ -0,0 +1,150 @@
+package org.emergent.gittle.core.git;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.submodule.SubmoduleWalk;
+import org.emergent.gittle.core.Config;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DirtyCheckerTest {
+
+  @TempDir
+  File tempDir;
+
+  @Test
+  public void cleanAndUntracked() throws Exception {
+    try (GitFixture fixture = newFixture()) {
+      assertDirty(fixture, false, false);
+      write(fixture, "untracked/nested.txt", "new");
+      write(fixture, "untracked.txt", "new");
+      assertDirty(fixture, false, false);
+    }
+  }
+
+  @Test
+  public void modifiedContent() throws Exception {
+    try (GitFixture fixture = newFixture()) {
+      write(fixture, "src/a.txt", "changed");
+      assertDirty(fixture, true, true);
+    }
+  }
+
+  @Test
+  public void stagedAndRemoved() throws Exception {
+    try (GitFixture fixture = newFixture()) {
+      write(fixture, "b.txt", "added");
+      fixture.git().add().addFilepattern("b.txt").call();
+      assertDirty(fixture, true, true);
+    }
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      Files.delete(fixture.dir().toPath().resolve("src/a.txt"));
+      assertDirty(fixture, true, true);
+      fixture.git().rm().addFilepattern("src/a.txt").call();
+      assertDirty(fixture, true, true);
+    }
+  }
+
+  @Test
+  public void touchedFile() throws Exception {
+    try (GitFixture fixture = newFixture()) {
+      Path file = fixture.dir().toPath().resolve("src/a.txt");
+      Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(3600)));
+      // content is unchanged, only the stat-only check trusts the timestamp
+      assertThat(new DirtyChecker(fixture.git().getRepository(), Config.DirtyCheck.CONTENT).isDirty()).isFalse();
+      assertThat(new DirtyChecker(fixture.git().getRepository(), Config.DirtyCheck.STAT).isDirty()).isTrue();
+    }
+  }
+
+  @Test
+  public void modifiedSubmodule() throws Exception {
+    File upstream = new File(tempDir, "upstream");
+    try (GitFixture library = new GitFixture(upstream)) {
+      write(library, "lib.txt", "library");
+      library.git().add().addFilepattern("lib.txt").call();
+      library.commit("library");
+    }
+    try (GitFixture fixture = new GitFixture(new File(tempDir, "main"))) {
+      fixture.commit("initial");
+      fixture.git().submoduleAdd().setPath("lib").setURI(upstream.toURI().toString()).call().close();
+      fixture.commit("add submodule");
+      // the fresh submodule checkout is racily clean, so only the content check applies
+      assertDirty(fixture, false, null);
+
+      write(fixture, "lib/lib.txt", "changed");
+      assertDirty(fixture, true, true);
+    }
+  }
+
+  @Test
+  public void uninitializedSubmodule() throws Exception {
+    File upstream = new File(tempDir, "upstream");
+    try (GitFixture library = new GitFixture(upstream)) {
+      write(library, "lib.txt", "library");
+      library.git().add().addFilepattern("lib.txt").call();
+      library.commit("library");
+    }
+    File main = new File(tempDir, "main");
+    try (GitFixture fixture = new GitFixture(main)) {
+      fixture.commit("initial");
+      fixture.git().submoduleAdd().setPath("lib").setURI(upstream.toURI().toString()).call().close();
+      fixture.commit("add submodule");
+    }
+    File clone = new File(tempDir, "clone");
+    Git.cloneRepository().setURI(main.toURI().toString()).setDirectory(clone).setCloneSubmodules(false).call().close();
+    try (GitFixture fixture = new GitFixture(clone)) {
+      // let the index timestamp move past the checkout, so the stat-only check can be asserted too
+      Files.setLastModifiedTime(clone.toPath().resolve(".gitmodules"), FileTime.from(Instant.now().minusSeconds(60)));
+      fixture.git().add().addFilepattern(".gitmodules").call();
+      Path lib = clone.toPath().resolve("lib");
+      Files.createDirectories(lib);
+      assertThat(lib).isEmptyDirectory();
+      assertDirty(fixture, false, false);
+
+      // git reports a removed submodule directory as deleted, even though JGit's status does not
+      Files.delete(lib);
+      assertThat(new DirtyChecker(fixture.git().getRepository(), Config.DirtyCheck.CONTENT).isDirty()).isTrue();
+      assertThat(new DirtyChecker(fixture.git().getRepository(), Config.DirtyCheck.STAT).isDirty()).isTrue();
+    }
+  }
+
+  private GitFixture newFixture() throws Exception {
+    GitFixture fixture = new GitFixture(tempDir);
+    write(fixture, "src/a.txt", "a");
+    write(fixture, ".gitignore", "*.log\n");
+    fixture.git().add().addFilepattern(".").call();
+    fixture.commit("initial");
+    // let the index timestamp move past the file timestamps, so no entry is racily clean
+    Files.setLastModifiedTime(fixture.dir().toPath().resolve("src/a.txt"), FileTime.from(Instant.now().minusSeconds(60)));
+    Files.setLastModifiedTime(fixture.dir().toPath().resolve(".gitignore"), FileTime.from(Instant.now().minusSeconds(60)));
+    fixture.git().add().addFilepattern(".").call();
+    return fixture;
+  }
+
+  private static void write(GitFixture fixture, String path, String content) throws Exception {
+    Path file = fixture.dir().toPath().resolve(path);
+    Files.createDirectories(file.getParent());
+    Files.writeString(file, content);
+  }
+
+  private static void assertDirty(GitFixture fixture, boolean content, Boolean stat) throws Exception {
+    Git git = fixture.git();
+    boolean status = !git.status()
+        .setIgnoreSubmodules(SubmoduleWalk.IgnoreSubmoduleMode.UNTRACKED)
+        .call()
+        .getUncommittedChanges()
+        .isEmpty();
+    assertThat(status).isEqualTo(content);
+    assertThat(new DirtyChecker(git.getRepository(), Config.DirtyCheck.CONTENT).isDirty()).isEqualTo(content);
+    if (stat != null) {
+      assertThat(new DirtyChecker(git.getRepository(), Config.DirtyCheck.STAT).isDirty()).isEqualTo(stat);
+    }
+  }
+}
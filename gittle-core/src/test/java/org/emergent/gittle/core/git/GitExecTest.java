@@ -0,0 +1,64 @@
+package org.emergent.gittle.core.git;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.RepositoryCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GitExecTest {
+
+  @TempDir
+  File tempDir;
+
+  @AfterEach
+  public void tearDown() {
+    RepositoryCache.clear();
+  }
+
+  @Test
+  public void sharesRepositoryAcrossCallers() throws Exception {
+    try (GitFixture fixture = new GitFixture(new File(tempDir, "one"))) {
+      fixture.commit("initial");
+      File subdir = new File(fixture.dir(), "module");
+      assertThat(subdir.mkdirs()).isTrue();
+
+      Repository first = GitExec.execOp(fixture.dir(), git -> {
+        return git.getRepository();
+      });
+      Repository second = GitExec.execOp(subdir, git -> {
+        return git.getRepository();
+      });
+      assertThat(second).isSameAs(first);
+      assertThat(first.getWorkTree()).isEqualTo(fixture.dir().getAbsoluteFile());
+      assertThat(GitExec.findGitDir(subdir)).isEqualTo(first.getDirectory().getAbsolutePath());
+
+      // released handles stay usable for the next caller until the cache evicts them
+      ObjectId head = GitExec.execOp(subdir, git -> {
+        return git.getRepository().resolve("HEAD");
+      });
+      assertThat(head).isNotNull();
+    }
+  }
+
+  @Test
+  public void separateRepositories() throws Exception {
+    try (GitFixture one = new GitFixture(new File(tempDir, "one"));
+         GitFixture two = new GitFixture(new File(tempDir, "two"))) {
+      one.commit("initial");
+      two.commit("initial");
+      Repository first = GitExec.execOp(one.dir(), git -> {
+        return git.getRepository();
+      });
+      Repository second = GitExec.execOp(two.dir(), git -> {
+        return git.getRepository();
+      });
+      assertThat(second).isNotSameAs(first);
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package org.emergent.gittle.core.git;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.MergeCommand;
+import org.eclipse.jgit.lib.ConfigConstants;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.revwalk.RevCommit;
+
+import java.io.File;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+/**
+ * Small helper for building throwaway repositories with deterministic commit times.
+ */
+public class GitFixture implements AutoCloseable {
+
+  private final Git git;
+  private long time = Instant.parse("2025-01-01T00:00:00Z").getEpochSecond();
+
+  public GitFixture(File dir) throws Exception {
+    this.git = Git.init().setDirectory(dir).setInitialBranch("main").call();
+  }
+
+  public Git git() {
+    return git;
+  }
+
+  public File dir() {
+    return git.getRepository().getWorkTree();
+  }
+
+  public RevCommit commit(String message) throws Exception {
+    PersonIdent ident = new PersonIdent("gittle", "gittle@example.com", Instant.ofEpochSecond(time++), ZoneOffset.UTC);
+    return git.commit()
+        .setAllowEmpty(true)
+        .setMessage(message)
+        .setAuthor(ident)
+        .setCommitter(ident)
+        .setSign(false)
+        .call();
+  }
+
+  /**
+   * Merges {@code other} into the current branch, always creating a merge commit.
+   */
+  public RevCommit merge(RevCommit other, String message) throws Exception {
+    git.merge().include(other).setFastForward(MergeCommand.FastForwardMode.NO_FF).setCommit(false).call();
+    return commit(message);
+  }
+
+  public void checkout(String branch, boolean create) throws Exception {
+    git.checkout().setName(branch).setCreateBranch(create).call();
+  }
+
+  /**
+   * Repacks the repository, writing a commit-graph alongside the pack.
+   */
+  public void gc() throws Exception {
+    gc(true);
+  }
+
+  /**
+   * Repacks the repository into a pack with reachability bitmaps, optionally with a commit-graph.
+   */
+  public void gc(boolean commitGraph) throws Exception {
+    StoredConfig config = git.getRepository().getConfig();
+    config.setBoolean(ConfigConstants.CONFIG_GC_SECTION, null, ConfigConstants.CONFIG_KEY_WRITE_COMMIT_GRAPH, commitGraph);
+    config.save();
+    git.gc().call();
+  }
+
+  public void tag(String name) throws Exception {
+    git.tag().setName(name).setAnnotated(false).call();
+  }
+
+  public void annotatedTag(String name) throws Exception {
+    git.tag().setName(name).setMessage("Release " + name).setSigned(false).call();
+  }
+
+  @Override
+  public void close() {
+    git.close();
+  }
+}
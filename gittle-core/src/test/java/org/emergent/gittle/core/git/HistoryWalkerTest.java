@@ -0,0 +1,262 @@
+package org.emergent.gittle.core.git;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.ConfigConstants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.emergent.gittle.core.Config;
+import org.emergent.gittle.core.Resolved;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class HistoryWalkerTest {
+
+  private static final String TAG_REGEX = Config.builder().build().getTagNameRegex();
+
+  @TempDir
+  File tempDir;
+
+  @Test
+  public void linearHistory() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      fixture.commit("initial");
+      fixture.tag("v1.0.0");
+      fixture.commit("second");
+      fixture.commit("third");
+      assertWalk(fixture, "1.0.0", 2);
+
+      fixture.annotatedTag("v1.1.0");
+      assertWalk(fixture, "1.1.0", 0);
+    }
+  }
+
+  @Test
+  public void noMatchingTag() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      fixture.commit("initial");
+      fixture.tag("nightly");
+      fixture.commit("second");
+      fixture.checkout("side", true);
+      fixture.commit("side");
+      fixture.tag("v9.0.0");
+      fixture.checkout("main", false);
+      fixture.commit("third");
+      assertWalk(fixture, null, 3);
+    }
+  }
+
+  @Test
+  public void commitGraphLeavesConfigUntouched() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      fixture.commit("initial");
+      fixture.tag("v1.0.0");
+      fixture.commit("second");
+      fixture.gc(true);
+      StoredConfig config = fixture.git().getRepository().getConfig();
+      assertThat(walk(fixture.git(), fixture.git().getRepository().resolve("HEAD")))
+          .isEqualTo(Resolved.builder().tagVersion("1.0.0").commits(1).build());
+      // the repository, and its config, may be shared with other threads through the repository cache
+      assertThat(config.getString(ConfigConstants.CONFIG_CORE_SECTION, null, ConfigConstants.CONFIG_COMMIT_GRAPH))
+          .isNull();
+    }
+  }
+
+  @Test
+  public void mergedHistory() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      fixture.commit("initial");
+      fixture.tag("v1.0.0");
+      fixture.checkout("side", true);
+      RevCommit side = fixture.commit("side one");
+      fixture.annotatedTag("v1.1.0");
+      fixture.checkout("main", false);
+      fixture.commit("main one");
+      fixture.commit("main two");
+      fixture.merge(side, "merge side");
+      assertWalk(fixture, "1.1.0", 3);
+
+      // tags on merge commits are skipped
+      fixture.tag("v2.0.0");
+      assertWalk(fixture, "1.1.0", 3);
+    }
+  }
+
+  @Test
+  public void mergedHistoryWithoutTags() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      fixture.commit("initial");
+      fixture.checkout("side", true);
+      fixture.commit("side one");
+      RevCommit side = fixture.commit("side two");
+      fixture.checkout("main", false);
+      fixture.commit("main one");
+      fixture.merge(side, "merge side");
+      fixture.commit("main two");
+      assertWalk(fixture, null, 6);
+    }
+  }
+
+  @Test
+  public void firstParentHistory() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      fixture.commit("initial");
+      fixture.checkout("side", true);
+      fixture.commit("side one");
+      RevCommit side = fixture.commit("side two");
+      fixture.checkout("main", false);
+      fixture.commit("main one");
+      fixture.merge(side, "merge side");
+      assertFirstParentWalk(fixture, null, 3);
+
+      fixture.checkout("feature", true);
+      fixture.commit("feature one");
+      fixture.tag("v1.1.0");
+      RevCommit feature = fixture.commit("feature two");
+      fixture.checkout("main", false);
+      fixture.commit("main two");
+      fixture.tag("v1.0.0");
+      fixture.commit("main three");
+      fixture.merge(feature, "merge feature");
+      // the tag on the merged branch is nearer, but only the mainline is followed
+      assertFirstParentWalk(fixture, "1.0.0", 2);
+    }
+  }
+
+  @Test
+  public void commitLimit() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      fixture.commit("initial");
+      fixture.tag("v1.0.0");
+      fixture.commit("second");
+      fixture.commit("third");
+      fixture.commit("fourth");
+      Git git = fixture.git();
+      ObjectId headId = git.getRepository().resolve("HEAD");
+      Config limited = Config.builder().maxCommits(2).build();
+      assertThat(walk(git, headId, limited))
+          .isEqualTo(Resolved.builder().commits(2).limitReached(true).build());
+
+      // a tag at exactly the limit is still found
+      Config enough = Config.builder().maxCommits(3).build();
+      assertThat(walk(git, headId, enough)).isEqualTo(Resolved.builder().tagVersion("1.0.0").commits(3).build());
+    }
+  }
+
+  @Test
+  public void shallowClone() throws Exception {
+    File origin = new File(tempDir, "origin");
+    try (GitFixture fixture = new GitFixture(origin)) {
+      fixture.commit("initial");
+      fixture.commit("second");
+      fixture.tag("v1.1.0");
+      fixture.commit("third");
+      fixture.commit("fourth");
+    }
+    // the tagged commit is the shallow boundary, nothing before the tag is missing
+    try (Git git = shallowClone(origin, new File(tempDir, "deep"), 3)) {
+      assertThat(walk(git, git.getRepository().resolve("HEAD")))
+          .isEqualTo(Resolved.builder().tagVersion("1.1.0").commits(2).build());
+    }
+    try (Git git = shallowClone(origin, new File(tempDir, "shallow"), 2)) {
+      assertThat(walk(git, git.getRepository().resolve("HEAD")))
+          .isEqualTo(Resolved.builder().commits(2).truncated(true).build());
+    }
+  }
+
+  @Test
+  public void partialClone() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      fixture.commit("initial");
+      fixture.tag("v1.0.0");
+      RevCommit missing = fixture.commit("second");
+      fixture.commit("third");
+      Git git = fixture.git();
+      ObjectId headId = git.getRepository().resolve("HEAD");
+      String name = missing.getName();
+      File objects = new File(git.getRepository().getDirectory(), "objects");
+      Files.delete(objects.toPath().resolve(name.substring(0, 2)).resolve(name.substring(2)));
+      assertThatThrownBy(() -> walk(git, headId)).isInstanceOf(MissingObjectException.class);
+
+      StoredConfig config = git.getRepository().getConfig();
+      config.setString(ConfigConstants.CONFIG_EXTENSIONS_SECTION, null, "partialClone", "origin");
+      config.save();
+      Resolved resolved = walk(git, headId);
+      assertThat(resolved.isTruncated()).isTrue();
+      assertThat(resolved.getTagVersion()).isEqualTo(Resolved.TAG_VERSION_DEF);
+    }
+  }
+
+  private static Git shallowClone(File origin, File dir, int depth) throws Exception {
+    return Git.cloneRepository().setURI(origin.toURI().toString()).setDirectory(dir).setDepth(depth).call();
+  }
+
+  private static void assertFirstParentWalk(GitFixture fixture, String tagVersion, int commits) throws Exception {
+    Git git = fixture.git();
+    ObjectId headId = git.getRepository().resolve("HEAD");
+    Resolved.Builder builder = Resolved.builder().commits(commits);
+    Optional.ofNullable(tagVersion).ifPresent(builder::tagVersion);
+    Resolved expected = builder.build();
+    assertThat(walk(git, headId, true)).isEqualTo(expected);
+
+    // bitmaps count full reachability and must not be used, the commit-graph count follows first parents
+    fixture.gc(false);
+    assertThat(walk(git, headId, true)).isEqualTo(expected);
+    fixture.gc(true);
+    assertThat(walk(git, headId, true)).isEqualTo(expected);
+  }
+
+  private static void assertWalk(GitFixture fixture, String tagVersion, int commits) throws Exception {
+    Git git = fixture.git();
+    ObjectId headId = git.getRepository().resolve("HEAD");
+    Resolved.Builder builder = Resolved.builder().commits(commits);
+    Optional.ofNullable(tagVersion).ifPresent(builder::tagVersion);
+    Resolved expected = builder.build();
+    assertThat(logWalk(git, headId)).isEqualTo(expected);
+    assertThat(walk(git, headId)).isEqualTo(expected);
+
+    // same results from pack bitmaps, and once parents and generation numbers come from a commit-graph
+    fixture.gc(false);
+    assertThat(walk(git, headId)).isEqualTo(expected);
+    fixture.gc(true);
+    assertThat(walk(git, headId)).isEqualTo(expected);
+  }
+
+  private static Resolved walk(Git git, ObjectId headId) throws Exception {
+    return walk(git, headId, false);
+  }
+
+  private static Resolved walk(Git git, ObjectId headId, Config config) throws Exception {
+    return new HistoryWalker(git.getRepository(), new TagProvider(TAG_REGEX, git), config).walk(headId);
+  }
+
+  private static Resolved walk(Git git, ObjectId headId, boolean firstParent) throws Exception {
+    return new HistoryWalker(git.getRepository(), new TagProvider(TAG_REGEX, git), firstParent).walk(headId);
+  }
+
+  /**
+   * Reference implementation, a plain {@code git log} walk.
+   */
+  private static Resolved logWalk(Git git, ObjectId headId) throws Exception {
+    TagProvider tagProvider = new TagProvider(TAG_REGEX, git);
+    int commits = 0;
+    for (RevCommit commit : git.log().add(headId).call()) {
+      if (commit.getParentCount() < 2) {
+        Optional<String> tag = tagProvider.getTag(commit).map(Object::toString);
+        if (tag.isPresent()) {
+          return Resolved.builder().tagVersion(tag.get()).commits(commits).build();
+        }
+      }
+      commits++;
+    }
+    return Resolved.builder().commits(commits).build();
+  }
+}
@@ -0,0 +1,279 @@
+package org.emergent.gittle.core.git;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ConfigConstants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.emergent.gittle.core.Config;
+import org.emergent.gittle.core.GittleException;
+import org.emergent.gittle.core.Resolved;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class NativeGitBackendTest {
+
+  private static final Config CONFIG = Config.builder().backend(Config.Backend.NATIVE).build();
+
+  @TempDir
+  File tempDir;
+
+  @BeforeEach
+  public void requireGit() {
+    assumeTrue(NativeGitBackend.isAvailable(), "git is not on the path");
+  }
+
+  @Test
+  public void sameHistoryAsJGit() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      fixture.commit("initial");
+      assertSameWalk(fixture);
+      fixture.tag("v1.0.0");
+      assertSameWalk(fixture);
+      fixture.checkout("side", true);
+      RevCommit side = fixture.commit("side one");
+      fixture.annotatedTag("v1.1.0");
+      fixture.checkout("main", false);
+      fixture.commit("main one");
+      fixture.commit("main two");
+      assertSameWalk(fixture);
+      fixture.merge(side, "merge side");
+      fixture.tag("v2.0.0");
+      assertSameWalk(fixture);
+      fixture.commit("main three");
+      assertSameWalk(fixture);
+    }
+  }
+
+  @Test
+  public void sameFirstParentHistoryAsJGit() throws Exception {
+    Config config = CONFIG.toBuilder().firstParent(true).build();
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      fixture.commit("initial");
+      fixture.checkout("side", true);
+      RevCommit side = fixture.commit("side one");
+      fixture.checkout("main", false);
+      fixture.commit("main one");
+      fixture.merge(side, "merge side");
+      assertSameWalk(config, fixture);
+      assertThat(walk(config, fixture).getCommits()).isEqualTo(3);
+
+      fixture.checkout("side", false);
+      fixture.tag("v1.1.0");
+      fixture.checkout("main", false);
+      assertSameWalk(config, fixture);
+      assertThat(walk(config, fixture).getTagVersion()).isEqualTo(Resolved.TAG_VERSION_DEF);
+    }
+  }
+
+  @Test
+  public void commitLimit() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      fixture.commit("initial");
+      fixture.tag("v1.0.0");
+      fixture.commit("second");
+      fixture.commit("third");
+      Config config = CONFIG.toBuilder().maxCommits(1).build();
+      assertSameWalk(config, fixture);
+      assertThat(walk(config, fixture)).isEqualTo(Resolved.builder().commits(1).limitReached(true).build());
+    }
+  }
+
+  @Test
+  public void shallowClone() throws Exception {
+    File origin = new File(tempDir, "origin");
+    try (GitFixture fixture = new GitFixture(origin)) {
+      fixture.commit("initial");
+      fixture.tag("v1.0.0");
+      fixture.commit("second");
+      fixture.commit("third");
+    }
+    try (Git git = Git.cloneRepository()
+        .setURI(origin.toURI().toString())
+        .setDirectory(new File(tempDir, "shallow"))
+        .setDepth(1)
+        .call()) {
+      ObjectId headId = git.getRepository().resolve("HEAD");
+      Resolved expected = Resolved.builder().commits(1).truncated(true).build();
+      assertThat(new NativeGitBackend(CONFIG, git).walk(headId)).isEqualTo(expected);
+      assertThat(new JGitBackend(CONFIG, git).walk(headId)).isEqualTo(expected);
+    }
+  }
+
+  @Test
+  public void historyWithoutTags() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      fixture.commit("initial");
+      fixture.tag("nightly");
+      fixture.commit("second");
+      assertSameWalk(fixture);
+      assertThat(walk(fixture).getCommits()).isEqualTo(2);
+    }
+  }
+
+  @Test
+  public void dirtyCheck() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      write(fixture, "a.txt", "a");
+      fixture.git().add().addFilepattern("a.txt").call();
+      fixture.commit("initial");
+      NativeGitBackend backend = new NativeGitBackend(CONFIG, fixture.git());
+      assertThat(backend.isDirty()).isFalse();
+
+      // untracked files are never reported
+      write(fixture, "untracked.txt", "new");
+      assertThat(backend.isDirty()).isFalse();
+
+      write(fixture, "a.txt", "changed");
+      assertThat(backend.isDirty()).isTrue();
+    }
+  }
+
+  @Test
+  public void submoduleDirtyCheck() throws Exception {
+    File upstream = new File(tempDir, "upstream");
+    try (GitFixture library = new GitFixture(upstream)) {
+      write(library, "lib.txt", "library");
+      library.git().add().addFilepattern("lib.txt").call();
+      library.commit("library");
+    }
+    try (GitFixture fixture = new GitFixture(new File(tempDir, "main"))) {
+      fixture.commit("initial");
+      fixture.git().submoduleAdd().setPath("lib").setURI(upstream.toURI().toString()).call().close();
+      fixture.commit("add submodule");
+      assertSameDirty(fixture, false);
+
+      // untracked files inside a submodule are ignored like untracked files in the work tree
+      write(fixture, "lib/untracked.txt", "new");
+      assertSameDirty(fixture, false);
+
+      write(fixture, "lib/lib.txt", "changed");
+      assertSameDirty(fixture, true);
+    }
+
+    File clone = new File(tempDir, "clone");
+    Git.cloneRepository().setURI(new File(tempDir, "main").toURI().toString()).setDirectory(clone).call().close();
+    try (GitFixture fixture = new GitFixture(clone)) {
+      // the submodule was never initialized, so its directory is empty
+      Files.createDirectories(clone.toPath().resolve("lib"));
+      assertSameDirty(fixture, false);
+
+      Files.delete(clone.toPath().resolve("lib"));
+      assertSameDirty(fixture, true);
+    }
+  }
+
+  @Test
+  public void failedCommand() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      fixture.commit("initial");
+      fixture.tag("v1.0.0");
+      NativeGitBackend backend = new NativeGitBackend(CONFIG, fixture.git());
+      assertThatThrownBy(() -> backend.walk(ObjectId.zeroId()))
+          .isInstanceOf(GittleException.class)
+          .hasMessageContaining("exit code");
+    }
+  }
+
+  @Test
+  public void selectedBackend() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      Git git = fixture.git();
+      Config auto = CONFIG.toBuilder().backend(Config.Backend.AUTO).build();
+      assertThat(GitBackend.getInstance(Config.builder().build(), git)).isInstanceOf(JGitBackend.class);
+      assertThat(GitBackend.getInstance(CONFIG, git)).isInstanceOf(NativeGitBackend.class);
+      assertThat(GitBackend.getInstance(auto, git)).isInstanceOf(FallbackGitBackend.class);
+
+      // git would fail on missing commits of a partial clone
+      StoredConfig config = git.getRepository().getConfig();
+      config.setString(ConfigConstants.CONFIG_EXTENSIONS_SECTION, null, "partialClone", "origin");
+      config.save();
+      assertThat(GitBackend.getInstance(auto, git)).isInstanceOf(JGitBackend.class);
+    }
+  }
+
+  @Test
+  public void fallbackAfterFailure() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      fixture.commit("initial");
+      fixture.tag("v1.0.0");
+      ObjectId headId = fixture.git().getRepository().resolve("HEAD");
+      int[] calls = new int[1];
+      GitBackend failing = new GitBackend() {
+        @Override
+        public Resolved walk(ObjectId id) {
+          calls[0]++;
+          throw new GittleException("Timed out while running git rev-list");
+        }
+
+        @Override
+        public boolean isDirty() {
+          calls[0]++;
+          throw new GittleException("Timed out while running git status");
+        }
+      };
+      JGitBackend jgit = new JGitBackend(CONFIG, fixture.git());
+      File gitDir = fixture.git().getRepository().getDirectory();
+      GitBackend backend = new FallbackGitBackend(gitDir, failing, jgit);
+      assertThat(backend.walk(headId)).isEqualTo(jgit.walk(headId));
+      assertThat(backend.isDirty()).isFalse();
+      // the failed backend is not tried again, not even by later backends for the same repository
+      assertThat(new FallbackGitBackend(gitDir, failing, jgit).isDirty()).isFalse();
+      assertThat(calls[0]).isEqualTo(1);
+
+      try (GitFixture other = new GitFixture(new File(tempDir, "other"))) {
+        other.commit("initial");
+        GitBackend otherBackend = new FallbackGitBackend(other.git().getRepository().getDirectory(), failing,
+            new JGitBackend(CONFIG, other.git()));
+        assertThat(otherBackend.isDirty()).isFalse();
+        assertThat(calls[0]).isEqualTo(2);
+      }
+    }
+  }
+
+  @Test
+  public void noTimeout() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      fixture.commit("initial");
+      fixture.tag("v1.0.0");
+      assertSameWalk(CONFIG.toBuilder().nativeTimeoutMillis(0).build(), fixture);
+    }
+  }
+
+  private static void assertSameWalk(GitFixture fixture) throws Exception {
+    assertSameWalk(CONFIG, fixture);
+  }
+
+  private static void assertSameWalk(Config config, GitFixture fixture) throws Exception {
+    ObjectId headId = fixture.git().getRepository().resolve("HEAD");
+    assertThat(walk(config, fixture)).isEqualTo(new JGitBackend(config, fixture.git()).walk(headId));
+  }
+
+  private static void assertSameDirty(GitFixture fixture, boolean expected) throws Exception {
+    assertThat(new NativeGitBackend(CONFIG, fixture.git()).isDirty()).isEqualTo(expected);
+    assertThat(new JGitBackend(CONFIG, fixture.git()).isDirty()).isEqualTo(expected);
+  }
+
+  private static Resolved walk(GitFixture fixture) throws Exception {
+    return walk(CONFIG, fixture);
+  }
+
+  private static Resolved walk(Config config, GitFixture fixture) throws Exception {
+    ObjectId headId = fixture.git().getRepository().resolve("HEAD");
+    return new NativeGitBackend(config, fixture.git()).walk(headId);
+  }
+
+  private static void write(GitFixture fixture, String path, String content) throws Exception {
+    Path file = fixture.dir().toPath().resolve(path);
+    Files.writeString(file, content);
+  }
+}
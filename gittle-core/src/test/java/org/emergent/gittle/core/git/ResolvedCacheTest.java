@@ -0,0 +1,84 @@
+package org.emergent.gittle.core.git;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.emergent.gittle.core.Config;
+import org.emergent.gittle.core.Resolved;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResolvedCacheTest {
+
+  @TempDir
+  File tempDir;
+
+  @Test
+  public void roundTrip() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      fixture.commit("initial");
+      Repository repository = fixture.git().getRepository();
+      ResolvedCache cache = ResolvedCache.getInstance(repository);
+      String key = cache.createKey(repository, repository.resolve("HEAD"), Config.builder().build());
+      assertThat(cache.get(key)).isEmpty();
+
+      Resolved history = Resolved.builder().tagVersion("1.2.3").commits(4).build();
+      cache.put(key, history);
+      assertThat(cache.get(key)).contains(history);
+    }
+  }
+
+  @Test
+  public void keyTracksHeadTagsAndConfig() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      fixture.commit("initial");
+      Repository repository = fixture.git().getRepository();
+      ResolvedCache cache = ResolvedCache.getInstance(repository);
+      Config config = Config.builder().build();
+
+      String initial = cache.createKey(repository, repository.resolve("HEAD"), config);
+      assertThat(cache.createKey(repository, repository.resolve("HEAD"), config)).isEqualTo(initial);
+
+      fixture.tag("v1.0.0");
+      String tagged = cache.createKey(repository, repository.resolve("HEAD"), config);
+      assertThat(tagged).isNotEqualTo(initial);
+
+      String regex = cache.createKey(repository, repository.resolve("HEAD"),
+          config.toBuilder().tagNameRegex("r([0-9]+)").build());
+      assertThat(regex).isNotEqualTo(tagged);
+
+      fixture.commit("second");
+      assertThat(cache.createKey(repository, repository.resolve("HEAD"), config)).isNotEqualTo(tagged);
+    }
+  }
+
+  @Test
+  public void concurrentWriters() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      fixture.commit("initial");
+      Repository repository = fixture.git().getRepository();
+      ObjectId headId = repository.resolve("HEAD");
+      Resolved history = Resolved.builder().tagVersion("2.0.0").commits(7).build();
+
+      List<CompletableFuture<Void>> writers = IntStream.range(0, 16)
+          .mapToObj(i -> CompletableFuture.runAsync(() -> {
+            ResolvedCache cache = ResolvedCache.getInstance(repository);
+            try {
+              String key = cache.createKey(repository, headId, Config.builder().build());
+              cache.put(key, history);
+              assertThat(cache.get(key)).contains(history);
+            } catch (Exception e) {
+              throw new RuntimeException(e);
+            }
+          }))
+          .toList();
+      CompletableFuture.allOf(writers.toArray(CompletableFuture[]::new)).join();
+    }
+  }
+}
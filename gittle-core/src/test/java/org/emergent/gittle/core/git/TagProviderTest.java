@@ -0,0 +1,88 @@
+package org.emergent.gittle.core.git;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevObject;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.emergent.gittle.core.Config;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TagProviderTest {
+
+  private static final String TAG_REGEX = Config.builder().build().getTagNameRegex();
+
+  @TempDir
+  File tempDir;
+
+  @Test
+  public void looseAndPackedTags() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      RevCommit first = fixture.commit("first");
+      fixture.tag("v1.0.0");
+      fixture.annotatedTag("v1.0.1");
+      fixture.tag("nightly");
+      RevCommit second = fixture.commit("second");
+      fixture.annotatedTag("v2.0.0");
+      Ref inner = fixture.git().getRepository().findRef("v2.0.0");
+      try (RevWalk walk = new RevWalk(fixture.git().getRepository())) {
+        // a tag of a tag still resolves to the commit
+        RevObject innerTag = walk.parseAny(inner.getObjectId());
+        fixture.git().tag().setName("v3.0.0").setObjectId(innerTag).setMessage("nested").setSigned(false).call();
+      }
+      RevCommit third = fixture.commit("third");
+
+      assertTags(fixture, first, second, third);
+      fixture.gc();
+      assertTags(fixture, first, second, third);
+    }
+  }
+
+  @Test
+  public void literalPrefix() {
+    assertThat(TagProvider.getLiteralPrefix(TAG_REGEX)).isEmpty();
+    assertThat(TagProvider.getLiteralPrefix("v([0-9]+\\.[0-9]+\\.[0-9]+)")).isEqualTo("v");
+    assertThat(TagProvider.getLiteralPrefix("^lib-a/([0-9.]+)$")).isEqualTo("lib-a/");
+    assertThat(TagProvider.getLiteralPrefix("rel\\.v([0-9.]+)")).isEqualTo("rel.v");
+    assertThat(TagProvider.getLiteralPrefix("release-?([0-9.]+)")).isEqualTo("release");
+    assertThat(TagProvider.getLiteralPrefix("ab+c([0-9.]+)")).isEqualTo("ab");
+    assertThat(TagProvider.getLiteralPrefix("release-([0-9.]+)|v([0-9.]+)")).isEmpty();
+    assertThat(TagProvider.getLiteralPrefix("(?i)v([0-9.]+)")).isEmpty();
+    assertThat(TagProvider.getLiteralPrefix("\\d+(.*)")).isEmpty();
+  }
+
+  @Test
+  public void filtersUnrelatedTags() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      RevCommit first = fixture.commit("first");
+      fixture.tag("lib-a/1.0.0");
+      fixture.tag("nightly-1");
+      fixture.tag("1.5.0");
+      RevCommit second = fixture.commit("second");
+      fixture.tag("lib-a/2.0.0");
+      fixture.tag("lib-b/3.0.0");
+
+      TagProvider libA = new TagProvider("lib-a/([0-9]+\\.[0-9]+\\.[0-9]+)", fixture.git());
+      assertThat(libA.getTag(first)).hasValueSatisfying(v -> assertThat(v.toString()).isEqualTo("1.0.0"));
+      assertThat(libA.getTag(second)).hasValueSatisfying(v -> assertThat(v.toString()).isEqualTo("2.0.0"));
+
+      TagProvider standard = new TagProvider(TAG_REGEX, fixture.git());
+      assertThat(standard.getTaggedCommits()).extracting(ObjectId::copy).containsExactly(first.copy());
+    }
+  }
+
+  private static void assertTags(GitFixture fixture, RevCommit first, RevCommit second, RevCommit third) {
+    TagProvider provider = new TagProvider(TAG_REGEX, fixture.git());
+    assertThat(provider.getTaggedCommits())
+        .extracting(ObjectId::copy)
+        .containsExactlyInAnyOrder(first.copy(), second.copy());
+    assertThat(provider.getTag(first)).hasValueSatisfying(v -> assertThat(v.toString()).isEqualTo("1.0.1"));
+    assertThat(provider.getTag(second)).hasValueSatisfying(v -> assertThat(v.toString()).isEqualTo("3.0.0"));
+    assertThat(provider.getTag(third)).isEmpty();
+  }
+}
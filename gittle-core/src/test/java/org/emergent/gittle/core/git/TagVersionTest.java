@@ -0,0 +1,50 @@
+package org.emergent.gittle.core.git;
+
+import org.apache.maven.artifact.versioning.ComparableVersion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TagVersionTest {
+
+  private static final List<String> VERSIONS = List.of(
+      "0.0.0", "0.0.1", "0.1.0", "1.0.0", "1.0.0.0", "1.0.1", "1.2.3", "1.2.3-SNAPSHOT", "1.2.3-rc1",
+      "1.2.3.1", "1.2", "1.10.0", "1.9.99", "2.0.0", "2.0", "01.2.3", "2097151.0.0", "2097152.0.0",
+      "10.20.30", "1.2.3-alpha", "1.2.3+build");
+
+  @Test
+  public void packsPlainVersions() {
+    assertThat(TagVersion.parse("1.2.3").isPacked()).isTrue();
+    assertThat(TagVersion.parse("0.0.0").isPacked()).isTrue();
+    assertThat(TagVersion.parse("2097151.2097151.2097151").isPacked()).isTrue();
+    assertThat(TagVersion.parse("2097152.0.0").isPacked()).isFalse();
+    assertThat(TagVersion.parse("01.2.3").isPacked()).isFalse();
+    assertThat(TagVersion.parse("1.2").isPacked()).isFalse();
+    assertThat(TagVersion.parse("1.2.3.4").isPacked()).isFalse();
+    assertThat(TagVersion.parse("1.2.3-rc1").isPacked()).isFalse();
+    assertThat(TagVersion.parse("1..3").isPacked()).isFalse();
+  }
+
+  @Test
+  public void keepsOriginalText() {
+    VERSIONS.forEach(v -> assertThat(TagVersion.parse(v).toString()).isEqualTo(v));
+  }
+
+  @Test
+  public void ordersLikeComparableVersion() {
+    for (String left : VERSIONS) {
+      for (String right : VERSIONS) {
+        int expected = Integer.signum(new ComparableVersion(left).compareTo(new ComparableVersion(right)));
+        TagVersion l = TagVersion.parse(left);
+        TagVersion r = TagVersion.parse(right);
+        assertThat(Integer.signum(l.compareTo(r))).as("%s <=> %s", left, right).isEqualTo(expected);
+        assertThat(l.equals(r)).isEqualTo(expected == 0);
+        if (expected == 0) {
+          assertThat(l.hashCode()).isEqualTo(r.hashCode());
+        }
+      }
+    }
+  }
+}
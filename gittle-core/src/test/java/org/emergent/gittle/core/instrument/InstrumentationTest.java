@@ -0,0 +1,86 @@
+package org.emergent.gittle.core.instrument;
+
+import org.emergent.gittle.core.Config;
+import org.emergent.gittle.core.git.GitFixture;
+import org.emergent.gittle.core.strategy.StrategyFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InstrumentationTest {
+
+  private final Recorder recorder = new Recorder();
+
+  @TempDir
+  File tempDir;
+
+  @AfterEach
+  public void unregister() {
+    Instrumentation.unregister(recorder);
+  }
+
+  @Test
+  public void disabledWithoutListeners() {
+    assertThat(Instrumentation.isEnabled()).isFalse();
+    assertThat(Instrumentation.time(Instrumentation.Phase.RESOLVE))
+        .isSameAs(Instrumentation.time(Instrumentation.Phase.STATUS));
+  }
+
+  @Test
+  public void reportsResolution() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      fixture.commit("initial");
+      fixture.tag("v1.0.0");
+      fixture.annotatedTag("v1.0.1");
+      fixture.tag("nightly");
+      fixture.commit("second");
+      fixture.commit("third");
+
+      Instrumentation.register(recorder);
+      Config config = Config.builder()
+          .cacheEnabled(false)
+          .backend(Config.Backend.JGIT)
+          .versionPattern("%t(-%c)(.%D)")
+          .build();
+      String version = StrategyFactory.getInstance(config, fixture.dir()).version();
+      assertThat(version).isEqualTo("1.0.1-2");
+
+      assertThat(recorder.phases).containsKeys(
+          Instrumentation.Phase.RESOLVE,
+          Instrumentation.Phase.REPOSITORY_OPEN,
+          Instrumentation.Phase.TAG_ENUMERATION,
+          Instrumentation.Phase.TAG_PEEL,
+          Instrumentation.Phase.HISTORY_WALK,
+          Instrumentation.Phase.STATUS,
+          Instrumentation.Phase.PATTERN_RENDER);
+      assertThat(recorder.phases.get(Instrumentation.Phase.RESOLVE))
+          .isGreaterThanOrEqualTo(recorder.phases.get(Instrumentation.Phase.HISTORY_WALK));
+      assertThat(recorder.counters.get(Instrumentation.Counter.TAGS_SCANNED)).isEqualTo(3);
+      assertThat(recorder.counters.get(Instrumentation.Counter.OBJECTS_OPENED)).isEqualTo(2);
+      assertThat(recorder.counters.get(Instrumentation.Counter.COMMITS_VISITED)).isEqualTo(2);
+      assertThat(recorder.counters).containsKey(Instrumentation.Counter.FILES_STATED);
+    }
+  }
+
+  private static class Recorder implements InstrumentationListener {
+
+    private final Map<Instrumentation.Phase, Long> phases = new EnumMap<>(Instrumentation.Phase.class);
+    private final Map<Instrumentation.Counter, Long> counters = new EnumMap<>(Instrumentation.Counter.class);
+
+    @Override
+    public synchronized void phaseCompleted(Instrumentation.Phase phase, long nanos) {
+      phases.merge(phase, nanos, Long::sum);
+    }
+
+    @Override
+    public synchronized void counted(Instrumentation.Counter counter, long amount) {
+      counters.merge(counter, amount, Long::sum);
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package org.emergent.gittle.core.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.emergent.gittle.core.Config;
+import org.emergent.gittle.core.git.GitFixture;
+import org.emergent.gittle.core.git.GitUtil;
+import org.emergent.gittle.core.strategy.StrategyFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JfrEventsTest {
+
+  @TempDir
+  File tempDir;
+
+  @Test
+  public void recordsResolution() throws Exception {
+    File repo = new File(tempDir, "repo");
+    try (GitFixture fixture = new GitFixture(repo)) {
+      fixture.commit("initial");
+      fixture.tag("v1.0.0");
+      fixture.commit("second");
+    }
+    Config config = Config.builder()
+        .cacheEnabled(false)
+        .backend(Config.Backend.JGIT)
+        .versionPattern("%t(-%c)(.%D)")
+        .build();
+
+    Path dump = tempDir.toPath().resolve("gittle.jfr");
+    try (Recording recording = new Recording()) {
+      List.of(ResolveEvent.class, TagMapEvent.class, HistoryWalkEvent.class, DirtyCheckEvent.class,
+          TagCreateEvent.class, CommitCreateEvent.class).forEach(recording::enable);
+      recording.start();
+      assertThat(StrategyFactory.getInstance(config, repo).version()).isEqualTo("1.0.0-1");
+      GitUtil gitUtil = GitUtil.getInstance(repo);
+      gitUtil.executeCommit("third");
+      gitUtil.createTag("v1.1.0", "Release 1.1.0", false);
+      recording.stop();
+      recording.dump(dump);
+    }
+
+    Map<String, RecordedEvent> events = RecordingFile.readAllEvents(dump).stream()
+        .collect(Collectors.toMap(e -> e.getEventType().getName(), Function.identity(), (a, b) -> a));
+    assertThat(events).containsKeys(
+        "org.emergent.gittle.Resolve",
+        "org.emergent.gittle.TagMap",
+        "org.emergent.gittle.HistoryWalk",
+        "org.emergent.gittle.DirtyCheck",
+        "org.emergent.gittle.TagCreate",
+        "org.emergent.gittle.CommitCreate");
+
+    RecordedEvent resolve = events.get("org.emergent.gittle.Resolve");
+    assertThat(resolve.getString("version")).isEqualTo("1.0.0-1");
+    assertThat(resolve.getString("gitDir")).endsWith(".git");
+    RecordedEvent walk = events.get("org.emergent.gittle.HistoryWalk");
+    assertThat(walk.getInt("commitsSinceTag")).isEqualTo(1);
+    assertThat(walk.getString("backend")).isEqualTo("JGitBackend");
+    assertThat(walk.getBoolean("cached")).isFalse();
+    assertThat(events.get("org.emergent.gittle.TagMap").getInt("taggedCommits")).isEqualTo(1);
+    assertThat(events.get("org.emergent.gittle.TagCreate").getString("tagName")).isEqualTo("v1.1.0");
+  }
+}
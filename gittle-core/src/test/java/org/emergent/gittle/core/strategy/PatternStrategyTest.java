@@ -2,6 +2,7 @@ package org.emergent.gittle.core.strategy;
 
 import org.emergent.gittle.core.Config;
 import org.emergent.gittle.core.Resolved;
+import org.emergent.gittle.core.strategy.PatternStrategy.Phase;
 import org.junit.jupiter.api.Test;
 
 import java.util.HashMap;
@@ -95,6 +96,31 @@ public class PatternStrategyTest {
         .isEqualTo("1.2.3");
   }
 
+  @Test
+  public void testLeadingLiteral() {
+    PatternStrategy strategy = getPatternStrategy();
+    Config config = strategy.config();
+    Resolved resolved = strategy.resolved();
+    strategy = new PatternStrategy(
+        config.toBuilder()
+            .versionPattern("v%t(-%C)")
+            .build(),
+        resolved.toBuilder()
+            .commits(1)
+            .build());
+    assertThat(strategy.version()).isNotNull()
+        .isEqualTo("1.2.3-1");
+  }
+
+  @Test
+  public void testPhases() {
+    assertThat(PatternStrategy.getPhases("%t(-%B)(-%C)(-%S)(+%H)(.%D)"))
+        .containsExactlyInAnyOrder(Phase.BRANCH, Phase.HISTORY, Phase.DIRTY);
+    assertThat(PatternStrategy.getPhases("%t(-%S)")).containsExactly(Phase.HISTORY);
+    assertThat(PatternStrategy.getPhases("%b-%h")).containsExactly(Phase.BRANCH);
+    assertThat(PatternStrategy.getPhases("1.0.0+%f")).isEmpty();
+  }
+
   @Test
   public void testPropertiesNames() {
     PatternStrategy strategy = getPatternStrategy();
@@ -0,0 +1,103 @@
+package org.emergent.gittle.core.strategy;
+
+import org.emergent.gittle.core.Config;
+import org.emergent.gittle.core.git.GitFixture;
+import org.emergent.gittle.core.instrument.Instrumentation;
+import org.emergent.gittle.core.instrument.InstrumentationListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StrategyFactoryTest {
+
+  private final Recorder recorder = new Recorder();
+
+  @TempDir
+  File tempDir;
+
+  @AfterEach
+  public void unregister() {
+    Instrumentation.unregister(recorder);
+  }
+
+  @Test
+  public void skippedPhasesResolveOnRead() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      Path file = fixture.dir().toPath().resolve("a.txt");
+      Files.writeString(file, "a");
+      fixture.git().add().addFilepattern("a.txt").call();
+      fixture.commit("initial");
+      fixture.tag("v1.0.0");
+      fixture.commit("second");
+      Files.writeString(file, "changed");
+
+      Instrumentation.register(recorder);
+      Config config = Config.builder()
+          .cacheEnabled(false)
+          .versionPattern("%h")
+          .build();
+      VersionStrategy strategy = StrategyFactory.getInstance(config, fixture.dir());
+      assertThat(strategy.version()).hasSize(8);
+      assertThat(recorder.phases).doesNotContain(Instrumentation.Phase.HISTORY_WALK, Instrumentation.Phase.STATUS);
+
+      assertThat(strategy.asResolvedMap())
+          .containsKeys("gittle.resolved.hash", "gittle.resolved.hashShort", "gittle.resolved.version")
+          .doesNotContainKeys("gittle.resolved.branch", "gittle.resolved.tagVersion", "gittle.resolved.dirty");
+      assertThat(recorder.phases).doesNotContain(Instrumentation.Phase.HISTORY_WALK, Instrumentation.Phase.STATUS);
+
+      Map<String, String> props = strategy.asMap();
+      assertThat(props)
+          .containsEntry("gittle.resolved.branch", "main")
+          .containsEntry("gittle.resolved.tagVersion", "1.0.0")
+          .containsEntry("gittle.resolved.commits", "1")
+          .containsEntry("gittle.resolved.dirty", "true");
+      assertThat(recorder.phases).contains(Instrumentation.Phase.HISTORY_WALK, Instrumentation.Phase.STATUS);
+    }
+  }
+
+  @Test
+  public void resolvedMapKeepsPatternPhases() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      fixture.commit("initial");
+      fixture.tag("v1.0.0");
+      fixture.commit("second");
+
+      Instrumentation.register(recorder);
+      Config config = Config.builder()
+          .cacheEnabled(false)
+          .versionPattern("%t(-%S)")
+          .build();
+      Map<String, String> props = StrategyFactory.getInstance(config, fixture.dir()).asResolvedMap();
+      assertThat(props)
+          .containsEntry("gittle.resolved.tagVersion", "1.0.0")
+          .containsEntry("gittle.resolved.commits", "1")
+          .containsEntry("gittle.resolved.version", "1.0.0-SNAPSHOT")
+          .doesNotContainKeys("gittle.resolved.branch", "gittle.resolved.dirty");
+      assertThat(recorder.phases).contains(Instrumentation.Phase.HISTORY_WALK)
+          .doesNotContain(Instrumentation.Phase.STATUS);
+    }
+  }
+
+  private static class Recorder implements InstrumentationListener {
+
+    private final Set<Instrumentation.Phase> phases = EnumSet.noneOf(Instrumentation.Phase.class);
+
+    @Override
+    public synchronized void phaseCompleted(Instrumentation.Phase phase, long nanos) {
+      phases.add(phase);
+    }
+
+    @Override
+    public void counted(Instrumentation.Counter counter, long amount) {
+    }
+  }
+}
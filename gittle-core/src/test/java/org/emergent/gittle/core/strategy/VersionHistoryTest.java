@@ -0,0 +1,196 @@
+package org.emergent.gittle.core.strategy;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.emergent.gittle.core.Config;
+import org.emergent.gittle.core.Resolved;
+import org.emergent.gittle.core.git.GitFixture;
+import org.emergent.gittle.core.git.JGitBackend;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+
+public class VersionHistoryTest {
+
+  private static final Config CONFIG = Config.builder().versionPattern("%t(-%C)").build();
+
+  @TempDir
+  File tempDir;
+
+  @Test
+  public void matchesPerCommitResolution() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      fixture.commit("initial");
+      fixture.commit("second");
+      fixture.tag("v1.0.0");
+      fixture.checkout("side", true);
+      fixture.commit("side one");
+      RevCommit side = fixture.commit("side two");
+      fixture.annotatedTag("v1.1.0");
+      fixture.checkout("main", false);
+      fixture.commit("main one");
+      fixture.merge(side, "merge side");
+      fixture.commit("main two");
+      fixture.tag("v2.0.0");
+      fixture.commit("main three");
+
+      List<VersionHistory.Entry> entries = history(fixture.git(), null);
+      assertThat(entries).hasSize(8);
+      assertMatchesPerCommitResolution(CONFIG, fixture.git(), entries);
+    }
+  }
+
+  @Test
+  public void mergeCountsNewerMergedCommits() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      fixture.commit("initial");
+      fixture.tag("v1.0.0");
+      fixture.checkout("side", true);
+      fixture.checkout("main", false);
+      fixture.commit("main one");
+      fixture.tag("v1.1.0");
+      fixture.checkout("side", false);
+      fixture.commit("side one");
+      fixture.commit("side two");
+      RevCommit side = fixture.commit("side three");
+      fixture.checkout("main", false);
+      RevCommit merge = fixture.merge(side, "merge side");
+      RevCommit last = fixture.commit("main two");
+
+      // the side commits are newer than the v1.1.0 commit, so the walk from the merge passes them first
+      assertThat(history(fixture.git(), null))
+          .filteredOn(entry -> entry.commit().equals(merge) || entry.commit().equals(last))
+          .extracting(VersionHistory.Entry::commit, VersionHistory.Entry::version)
+          .containsExactly(tuple(merge.copy(), "1.1.0-4"), tuple(last.copy(), "1.1.0-5"));
+    }
+  }
+
+  @Test
+  public void matchesPerCommitResolutionOfMergeHeavyHistory() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      Random random = new Random(42);
+      List<String> branches = new ArrayList<>(List.of("main"));
+      Map<String, RevCommit> heads = new HashMap<>();
+      String current = "main";
+      heads.put(current, fixture.commit("initial"));
+      int tags = 0;
+      for (int i = 0; i < 200; i++) {
+        int op = random.nextInt(10);
+        if (op < 2 && branches.size() < 6) {
+          RevCommit start = heads.get(current);
+          current = "branch-" + i;
+          fixture.checkout(current, true);
+          heads.put(current, start);
+          branches.add(current);
+        } else if (op < 4) {
+          current = branches.get(random.nextInt(branches.size()));
+          fixture.checkout(current, false);
+        } else if (op < 6) {
+          RevCommit other = heads.get(branches.get(random.nextInt(branches.size())));
+          heads.put(current, fixture.merge(other, "merge " + i));
+        } else {
+          heads.put(current, fixture.commit("commit " + i));
+        }
+        if (random.nextInt(8) == 0) {
+          fixture.tag("v1." + tags++ + ".0");
+        }
+      }
+      fixture.checkout("main", false);
+      for (String branch : branches.subList(1, branches.size())) {
+        fixture.merge(heads.get(branch), "merge " + branch);
+      }
+
+      List<VersionHistory.Entry> entries = history(fixture.git(), null);
+      assertThat(entries).hasSizeGreaterThan(100);
+      assertMatchesPerCommitResolution(CONFIG, fixture.git(), entries);
+      Config firstParent = CONFIG.toBuilder().firstParent(true).build();
+      assertMatchesPerCommitResolution(firstParent, fixture.git(), history(firstParent, fixture.git(), null));
+    }
+  }
+
+  @Test
+  public void matchesPerCommitFirstParentResolution() throws Exception {
+    Config config = CONFIG.toBuilder().firstParent(true).build();
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      fixture.commit("initial");
+      fixture.tag("v1.0.0");
+      fixture.checkout("side", true);
+      fixture.commit("side one");
+      fixture.annotatedTag("v1.1.0");
+      RevCommit side = fixture.commit("side two");
+      fixture.checkout("main", false);
+      fixture.commit("main one");
+      fixture.merge(side, "merge side");
+      fixture.commit("main two");
+
+      List<VersionHistory.Entry> entries = history(config, fixture.git(), null);
+      assertThat(entries).hasSize(6);
+      assertThat(entries.get(entries.size() - 1).version()).isEqualTo("1.0.0-3");
+      assertMatchesPerCommitResolution(config, fixture.git(), entries);
+    }
+  }
+
+  @Test
+  public void childrenAfterTheirTag() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      RevCommit first = fixture.commit("initial");
+      fixture.tag("v1.0.0");
+      RevCommit second = fixture.commit("second");
+      RevCommit third = fixture.commit("third");
+
+      assertThat(history(fixture.git(), null))
+          .extracting(VersionHistory.Entry::commit, VersionHistory.Entry::version)
+          .containsExactly(
+              tuple(first.copy(), "1.0.0"),
+              tuple(second.copy(), "1.0.0-1"),
+              tuple(third.copy(), "1.0.0-2"));
+    }
+  }
+
+  @Test
+  public void sinceExcludesOlderCommits() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      fixture.commit("initial");
+      fixture.tag("v1.0.0");
+      RevCommit second = fixture.commit("second");
+      fixture.commit("third");
+      fixture.commit("fourth");
+
+      assertThat(history(fixture.git(), second))
+          .extracting(VersionHistory.Entry::version)
+          .containsExactly("1.0.0-2", "1.0.0-3");
+    }
+  }
+
+  private static void assertMatchesPerCommitResolution(Config config, Git git, List<VersionHistory.Entry> entries)
+      throws Exception {
+    for (VersionHistory.Entry entry : entries) {
+      Resolved expected = new JGitBackend(config, git).walk(entry.commit());
+      assertThat(entry.resolved().getTagVersion()).as(entry.commit().getName()).isEqualTo(expected.getTagVersion());
+      assertThat(entry.resolved().getCommits()).as(entry.commit().getName()).isEqualTo(expected.getCommits());
+      assertThat(entry.resolved().getHash()).isEqualTo(entry.commit().getName());
+    }
+  }
+
+  private static List<VersionHistory.Entry> history(Git git, ObjectId sinceId) throws Exception {
+    return history(CONFIG, git, sinceId);
+  }
+
+  private static List<VersionHistory.Entry> history(Config config, Git git, ObjectId sinceId) throws Exception {
+    ObjectId headId = git.getRepository().resolve("HEAD");
+    try (Stream<VersionHistory.Entry> entries = VersionHistory.stream(config, git, headId, sinceId)) {
+      return entries.toList();
+    }
+  }
+}
@@ -0,0 +1,178 @@
+package org.emergent.gittle.core.strategy;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.emergent.gittle.core.Config;
+import org.emergent.gittle.core.Resolved;
+import org.emergent.gittle.core.git.GitFixture;
+import org.emergent.gittle.core.git.JGitBackend;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class VersionIndexTest {
+
+  private static final Config CONFIG = Config.builder().versionPattern("%t(-%C)").build();
+
+  @TempDir
+  File tempDir;
+
+  @Test
+  public void matchesPerCommitResolution() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      fixture.commit("initial");
+      fixture.tag("v1.0.0");
+      fixture.checkout("side", true);
+      RevCommit side = fixture.commit("side one");
+      fixture.annotatedTag("v1.1.0");
+      fixture.checkout("main", false);
+      fixture.commit("main one");
+      fixture.merge(side, "merge side");
+      fixture.commit("main two");
+
+      Git git = fixture.git();
+      assertThat(update(git)).isEqualTo(5);
+      VersionIndex index = VersionIndex.open(CONFIG, git.getRepository()).orElseThrow();
+      assertThat(index.size()).isEqualTo(5);
+      assertMatchesPerCommitResolution(git, index);
+      assertThat(index.version(side, "side")).contains("1.1.0");
+      assertThat(index.lookup(ObjectId.zeroId())).isEmpty();
+    }
+  }
+
+  @Test
+  public void matchesPerCommitResolutionAcrossMerges() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      fixture.commit("initial");
+      fixture.tag("v1.0.0");
+      fixture.checkout("side", true);
+      fixture.checkout("main", false);
+      fixture.commit("main one");
+      fixture.tag("v1.1.0");
+      Git git = fixture.git();
+      update(git);
+
+      fixture.checkout("side", false);
+      fixture.commit("side one");
+      RevCommit side = fixture.commit("side two");
+      fixture.checkout("main", false);
+      fixture.commit("main two");
+      fixture.merge(side, "merge side");
+      fixture.checkout("side", false);
+      RevCommit sideThree = fixture.commit("side three");
+      fixture.checkout("main", false);
+      fixture.merge(sideThree, "merge side again");
+      fixture.commit("main three");
+      update(git);
+
+      VersionIndex index = VersionIndex.open(CONFIG, git.getRepository()).orElseThrow();
+      assertThat(index.size()).isEqualTo(9);
+      assertMatchesPerCommitResolution(git, index);
+    }
+  }
+
+  @Test
+  public void updatesIncrementally() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      fixture.commit("initial");
+      fixture.tag("v1.0.0");
+      fixture.commit("second");
+      Git git = fixture.git();
+      assertThat(update(git)).isEqualTo(2);
+      assertThat(update(git)).isZero();
+
+      RevCommit third = fixture.commit("third");
+      RevCommit fourth = fixture.commit("fourth");
+      assertThat(update(git)).isEqualTo(2);
+      VersionIndex index = VersionIndex.open(CONFIG, git.getRepository()).orElseThrow();
+      assertThat(index.size()).isEqualTo(4);
+      assertThat(index.version(third, null)).contains("1.0.0-2");
+      assertThat(index.version(fourth, null)).contains("1.0.0-3");
+    }
+  }
+
+  @Test
+  public void replacesAncestorTips() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      fixture.commit("initial");
+      fixture.tag("v1.0.0");
+      Git git = fixture.git();
+      update(git);
+      VersionIndex opened = VersionIndex.open(CONFIG, git.getRepository()).orElseThrow();
+
+      RevCommit second = fixture.commit("second");
+      update(git);
+      assertThat(VersionIndex.open(CONFIG, git.getRepository()).orElseThrow().getTips()).containsExactly(second.copy());
+      // an open index keeps working after the file is replaced
+      assertThat(opened.size()).isEqualTo(1);
+      assertThat(opened.lookup(second)).isEmpty();
+
+      fixture.checkout("side", true);
+      RevCommit side = fixture.commit("side one");
+      fixture.checkout("main", false);
+      RevCommit third = fixture.commit("third");
+      assertThat(VersionIndex.update(CONFIG, fixture.dir(), "side")).isEqualTo(1);
+      update(git);
+      assertThat(VersionIndex.open(CONFIG, git.getRepository()).orElseThrow().getTips())
+          .containsExactly(side.copy(), third.copy());
+
+      RevCommit merge = fixture.merge(side, "merge side");
+      update(git);
+      VersionIndex index = VersionIndex.open(CONFIG, git.getRepository()).orElseThrow();
+      assertThat(index.getTips()).containsExactly(merge.copy());
+      assertThat(index.size()).isEqualTo(5);
+    }
+  }
+
+  @Test
+  public void rebuildsWhenTagsChange() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      fixture.commit("initial");
+      fixture.tag("v1.0.0");
+      RevCommit second = fixture.commit("second");
+      Git git = fixture.git();
+      update(git);
+
+      fixture.tag("v1.1.0");
+      assertThat(VersionIndex.open(CONFIG, git.getRepository())).isEmpty();
+      assertThat(update(git)).isEqualTo(2);
+      VersionIndex index = VersionIndex.open(CONFIG, git.getRepository()).orElseThrow();
+      assertThat(index.version(second, null)).contains("1.1.0");
+    }
+  }
+
+  @Test
+  public void ignoresCorruptFile() throws Exception {
+    try (GitFixture fixture = new GitFixture(tempDir)) {
+      fixture.commit("initial");
+      Git git = fixture.git();
+      update(git);
+      Files.write(VersionIndex.getPath(git.getRepository()), new byte[] {1, 2, 3});
+      assertThat(VersionIndex.open(CONFIG, git.getRepository())).isEmpty();
+      assertThat(update(git)).isEqualTo(1);
+    }
+  }
+
+  private static void assertMatchesPerCommitResolution(Git git, VersionIndex index) throws Exception {
+    try (RevWalk walk = new RevWalk(git.getRepository())) {
+      walk.markStart(walk.parseCommit(git.getRepository().resolve("HEAD")));
+      for (RevCommit commit : walk) {
+        Resolved expected = new JGitBackend(CONFIG, git).walk(commit);
+        VersionIndex.Record record = index.lookup(commit).orElseThrow();
+        assertThat(record.tagVersion()).as(commit.getName()).isEqualTo(expected.getTagVersion());
+        assertThat(record.commits()).as(commit.getName()).isEqualTo(expected.getCommits());
+        assertThat(record.isTagged()).isEqualTo(expected.getCommits() == 0);
+      }
+    }
+  }
+
+  private static int update(Git git) throws Exception {
+    return VersionIndex.updateTo(CONFIG, git, git.getRepository().resolve("HEAD"));
+  }
+}
@@ -0,0 +1,59 @@
+package org.emergent.gittle.core.strategy;
+
+import org.emergent.gittle.core.Resolved;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class VersionTemplateTest {
+
+  private static final Resolved DEVEL = Resolved.builder()
+      .setTagVersion("1.2.3")
+      .setBranch("devel")
+      .setHash("c9f54782abcdef")
+      .setCommits(5)
+      .setDirty(false)
+      .build();
+
+  @Test
+  public void groupsAreDroppedWhenEmpty() {
+    assertThat(render("%t(-%B)(-%C)(-%S)(+%H)(.%D)", DEVEL)).isEqualTo("1.2.3-devel-5-SNAPSHOT+c9f54782");
+    assertThat(render("%t(-%B)(-%C)(-%S)(+%H)(.%D)", DEVEL.toBuilder().commits(0).dirty(true).build()))
+        .isEqualTo("1.2.3-devel+c9f54782.dirty");
+    assertThat(render("%t(-%B)(-%C)(-%S)(+%H)", DEVEL.toBuilder().branch("main").commits(0).build(), true))
+        .isEqualTo("1.2.3");
+  }
+
+  @Test
+  public void bareTokens() {
+    assertThat(render("%t+%h", DEVEL)).isEqualTo("1.2.3+c9f54782");
+    assertThat(render("%b/%c/%f", DEVEL)).isEqualTo("devel/5/c9f54782abcdef");
+    assertThat(render("%t-%C", DEVEL.toBuilder().commits(0).build())).isEqualTo("1.2.3-");
+  }
+
+  @Test
+  public void literalText() {
+    // text before the first token or group is dropped
+    assertThat(render("v%t", DEVEL)).isEqualTo("1.2.3");
+    assertThat(render("v(-%B)", DEVEL)).isEqualTo("-devel");
+    assertThat(render("1.0.0", DEVEL)).isEmpty();
+    assertThat(render("%t(foo)", DEVEL)).isEqualTo("1.2.3(foo)");
+    assertThat(render("%t-%x", DEVEL)).isEqualTo("1.2.3-%x");
+    // a group holds a single token, otherwise the parenthesis are literal text
+    assertThat(render("%t(-%B-%C)", DEVEL)).isEqualTo("1.2.3(-devel-5)");
+    assertThat(render("%t((-%C)", DEVEL)).isEqualTo("1.2.3(-5");
+  }
+
+  @Test
+  public void compiledOnce() {
+    assertThat(VersionTemplate.compile("%t(-%C)")).isSameAs(VersionTemplate.compile("%t(-%C)"));
+  }
+
+  private static String render(String pattern, Resolved resolved) {
+    return render(pattern, resolved, false);
+  }
+
+  private static String render(String pattern, Resolved resolved, boolean isReleaseBranch) {
+    return VersionTemplate.compile(pattern).render(resolved, isReleaseBranch);
+  }
+}
@@ -17,12 +17,20 @@ import org.emergent.gittle.core.GittleException;
 import org.emergent.gittle.core.PropCodec;
 import org.emergent.gittle.core.Util;
 
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.Writer;
+import java.io.StringWriter;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -39,6 +47,10 @@ class ExtensionUtil {
   public static final String REVISION = "revision";
   public static final String $_REVISION = "${revision}";
 
+  // factories are not guaranteed thread-safe and poms are scanned from parallel streams
+  private static final ThreadLocal<XMLInputFactory> XML_INPUT_FACTORY =
+      ThreadLocal.withInitial(ExtensionUtil::createXmlInputFactory);
+
   static Model readModelFromPom(Path pomPath) {
     try (InputStream inputStream = Files.newInputStream(pomPath)) {
       MavenXpp3Reader reader = new MavenXpp3Reader();
@@ -48,15 +60,126 @@ class ExtensionUtil {
     }
   }
 
-  static void writeModelToPom(Model projectModel, Path newPomPath) {
-    try (Writer fileWriter = Files.newBufferedWriter(newPomPath, Charset.defaultCharset())) {
-      MavenXpp3Writer writer = new MavenXpp3Writer();
-      writer.write(fileWriter, projectModel);
+  /**
+   * Returns the {@code <modules>} of the project in {@code pomPath}, reading only as far as the end
+   * of that element. Modules declared in profiles are not included.
+   */
+  static List<String> readModules(Path pomPath) {
+    return scanPom(pomPath, reader -> {
+      List<String> modules = new ArrayList<>();
+      int depth = 0;
+      boolean inModules = false;
+      while (reader.hasNext()) {
+        int event = reader.next();
+        if (event == XMLStreamConstants.START_ELEMENT) {
+          depth++;
+          String name = reader.getLocalName();
+          if (depth == 2 && "modules".equals(name)) {
+            inModules = true;
+          } else if (inModules && depth == 3 && "module".equals(name)) {
+            modules.add(reader.getElementText().trim());
+            depth--;
+          }
+        } else if (event == XMLStreamConstants.END_ELEMENT) {
+          if (inModules && depth == 2) {
+            break;
+          }
+          depth--;
+        }
+      }
+      return modules;
+    });
+  }
+
+  /**
+   * Returns the {@code <properties><revision>} of the project in {@code pomPath}, reading only as
+   * far as that element, or as the end of the properties when there is none.
+   */
+  static Optional<String> readRevision(Path pomPath) {
+    return scanPom(pomPath, reader -> {
+      int depth = 0;
+      boolean inProperties = false;
+      while (reader.hasNext()) {
+        int event = reader.next();
+        if (event == XMLStreamConstants.START_ELEMENT) {
+          depth++;
+          String name = reader.getLocalName();
+          if (depth == 2 && "properties".equals(name)) {
+            inProperties = true;
+          } else if (inProperties && depth == 3 && REVISION.equals(name)) {
+            return Optional.of(reader.getElementText().trim());
+          }
+        } else if (event == XMLStreamConstants.END_ELEMENT) {
+          if (inProperties && depth == 2) {
+            break;
+          }
+          depth--;
+        }
+      }
+      return Optional.empty();
+    });
+  }
+
+  /**
+   * Returns the first {@code revision} property of {@code pomPaths} in order of increasing path
+   * length, so the POM closest to the reactor root wins. The POMs are scanned concurrently.
+   */
+  static Optional<String> findRevision(Collection<Path> pomPaths) {
+    return pomPaths.stream()
+        .sorted(Comparator.comparingInt(p -> p.toString().length()))
+        .toList()
+        .parallelStream()
+        .map(ExtensionUtil::readRevision)
+        .flatMap(Optional::stream)
+        .findFirst();
+  }
+
+  private static <T> T scanPom(Path pomPath, PomScanner<T> scanner) {
+    try (InputStream in = Files.newInputStream(pomPath)) {
+      XMLStreamReader reader = XML_INPUT_FACTORY.get().createXMLStreamReader(in);
+      try {
+        return scanner.scan(reader);
+      } finally {
+        reader.close();
+      }
+    } catch (IOException | XMLStreamException e) {
+      throw new GittleException(pomPath + ": " + e.getMessage(), e);
+    }
+  }
+
+  @FunctionalInterface
+  private interface PomScanner<T> {
+    T scan(XMLStreamReader reader) throws XMLStreamException;
+  }
+
+  /**
+   * Writes the model to {@code newPomPath} unless the file already holds exactly the same bytes,
+   * so its modification time only changes along with its content. Returns true when written.
+   */
+  static boolean writeModelToPom(Model projectModel, Path newPomPath) {
+    try {
+      StringWriter out = new StringWriter();
+      new MavenXpp3Writer().write(out, projectModel);
+      byte[] content = out.toString().getBytes(Charset.defaultCharset());
+      if (Files.isRegularFile(newPomPath) && Files.size(newPomPath) == content.length
+          && Arrays.equals(Files.readAllBytes(newPomPath), content)) {
+        return false;
+      }
+      Files.write(newPomPath, content);
+      return true;
     } catch (IOException e) {
       throw new GittleException(e.getMessage(), e);
     }
   }
 
+  private static XMLInputFactory createXmlInputFactory() {
+    XMLInputFactory factory = XMLInputFactory.newFactory();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    return factory;
+  }
+
   public static Xpp3Dom toXml(Config src) {
     JsonElement json = PropCodec.toJsonTree(src, Config.class);
     Map<String, Object> map = PropCodec.fromJsonTree(json, OBJ_MAP_TT.getType());
@@ -9,10 +9,19 @@ import org.emergent.gittle.core.Util;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.emergent.gittle.core.Util.GITTLE_POM_XML;
 
@@ -24,7 +33,20 @@ import static org.emergent.gittle.core.Util.GITTLE_POM_XML;
 public class GittleMavenLifecycleParticipant extends AbstractMavenLifecycleParticipant {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(GittleMavenLifecycleParticipant.class);
+  private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
   private final AtomicBoolean initialized = new AtomicBoolean(false);
+  private final ModelCache modelCache;
+  private final int maxThreads;
+
+  @Inject
+  public GittleMavenLifecycleParticipant(ModelCache modelCache) {
+    this(modelCache, Runtime.getRuntime().availableProcessors());
+  }
+
+  GittleMavenLifecycleParticipant(ModelCache modelCache, int maxThreads) {
+    this.modelCache = modelCache;
+    this.maxThreads = maxThreads;
+  }
 
   @Override
   public void afterProjectsRead(MavenSession session) throws MavenExecutionException {
@@ -32,31 +54,91 @@ public class GittleMavenLifecycleParticipant extends AbstractMavenLifecycleParti
     updateProjects(session);
   }
 
-  private void updateProjects(MavenSession session) {
-    session.getAllProjects().forEach(this::updateProject);
+  @Override
+  public void afterSessionEnd(MavenSession session) throws MavenExecutionException {
+    super.afterSessionEnd(session);
+    modelCache.clear();
   }
 
-  private void updateProject(MavenProject project) {
+  /**
+   * Generates the gittle poms of all projects concurrently on a bounded pool. Each project is
+   * handled on its own, so a failure is logged for that project only. Generated poms are assigned
+   * to their projects on the calling thread, in reactor order.
+   */
+  private void updateProjects(MavenSession session) {
     if (Util.isDisabled()) {
       if (initialized.compareAndSet(false, true)) {
         LOGGER.debug("{} is disabled", getClass().getSimpleName());
       }
       return;
     }
+    List<MavenProject> projects = session.getAllProjects();
+    int threads = Math.min(projects.size(), maxThreads);
+    if (threads <= 1) {
+      projects.forEach(project -> generatePom(project).ifPresent(pom -> project.setPomFile(pom.toFile())));
+      return;
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "gittle-pom-" + THREAD_COUNT.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      List<Future<Optional<Path>>> futures = new ArrayList<>(projects.size());
+      for (MavenProject project : projects) {
+        futures.add(executor.submit(() -> generatePom(project)));
+      }
+      for (int i = 0; i < projects.size(); i++) {
+        MavenProject project = projects.get(i);
+        getResult(project, futures.get(i)).ifPresent(pom -> project.setPomFile(pom.toFile()));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static Optional<Path> getResult(MavenProject project, Future<Optional<Path>> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      LOGGER.error("Interrupted creating gittle pom for {}", project.getId(), e);
+    } catch (ExecutionException e) {
+      LOGGER.error("Failed creating gittle pom for {}", project.getId(), e.getCause());
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Writes the gittle pom of {@code project}, returning its path, or empty when it failed.
+   */
+  private Optional<Path> generatePom(MavenProject project) {
     Model originalModel = project.getModel();
     Path originalPomFile = originalModel.getPomFile().toPath().toAbsolutePath();
     Path gittlePomFile = originalPomFile.resolveSibling(GITTLE_POM_XML);
+    PomRewriteEvent event = new PomRewriteEvent();
+    event.begin();
     try {
-      Model gittleModel = ExtensionUtil.readModelFromPom(originalPomFile);
+      Model gittleModel = modelCache.get(originalPomFile);
       ExtensionUtil.copyVersions(originalModel, gittleModel);
       // Now write the updated model out to a file so we can point the project to it.
-      ExtensionUtil.writeModelToPom(gittleModel, gittlePomFile);
-      project.setPomFile(gittlePomFile.toFile());
-      LOGGER.debug("Updated project with newly generated gittle pom {}", gittlePomFile);
+      boolean written = ExtensionUtil.writeModelToPom(gittleModel, gittlePomFile);
+      if (written) {
+        LOGGER.debug("Updated project with newly generated gittle pom {}", gittlePomFile);
+      } else {
+        LOGGER.debug("Updated project with unchanged gittle pom {}", gittlePomFile);
+      }
+      event.end();
+      if (event.shouldCommit()) {
+        event.pomPath = gittlePomFile.toString();
+        event.version = originalModel.getVersion();
+        event.written = written;
+        event.commit();
+      }
+      return Optional.of(gittlePomFile);
     } catch (Exception e) {
       LOGGER.error("Failed creating new gittle pom at {}", gittlePomFile, e);
+      return Optional.empty();
     }
   }
-
-
 }
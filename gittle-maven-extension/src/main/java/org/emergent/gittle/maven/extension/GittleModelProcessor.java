@@ -18,6 +18,7 @@ import org.emergent.gittle.core.Util;
 import org.emergent.gittle.core.strategy.StrategyFactory;
 import org.emergent.gittle.core.strategy.VersionStrategy;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.File;
@@ -26,16 +27,13 @@ import java.io.InputStream;
 import java.io.Reader;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.apache.maven.shared.utils.logging.MessageUtils.buffer;
@@ -53,15 +51,17 @@ import static org.emergent.gittle.maven.extension.ExtensionUtil.REVISION;
 @Typed(ModelProcessor.class)
 public class GittleModelProcessor extends DefaultModelProcessor {
 
-  private final Set<Path> relatedPoms = new HashSet<>();
-  private final AtomicReference<VersionStrategy> strategyRef = new AtomicReference<>();
+  private final AtomicReference<CompletableFuture<Resolution>> resolutionRef = new AtomicReference<>();
   private final AtomicBoolean initialized = new AtomicBoolean(false);
 
+  private final ModelCache modelCache;
   private final boolean addProperties;
   private final boolean addPlugin;
   private final boolean configurePlugin;
 
-  public GittleModelProcessor() {
+  @Inject
+  public GittleModelProcessor(ModelCache modelCache) {
+    this.modelCache = modelCache;
     addProperties = true;
     addPlugin = false;
     configurePlugin = false;
@@ -97,28 +97,50 @@ public class GittleModelProcessor extends DefaultModelProcessor {
       // Source poms end with .xml but dependency poms end with .pom
       return projectModel;
     }
+    // keep the model as parsed, before it is processed, for the lifecycle participant
+    modelCache.put(projectModel.getPomFile().toPath(), projectModel);
 
     // This model processor is invoked for every POM on the classpath, including the plugins.
-    // The first execution is with the project's pom though. We use strategyRef to avoid processing other poms.
-    VersionStrategy versionStrategy = strategyRef.updateAndGet(curStrat -> {
-      if (curStrat != null) {
-        return curStrat;
-      }
-      relatedPoms.addAll(findRelatedProjects(projectModel));
-      return getVersionStrategy(projectModel);
-    });
-
-    processRelatedProjects(projectModel, versionStrategy);
+    // The first execution is with the project's pom though, and only that one resolves the version.
+    Resolution resolution = getResolution(projectModel);
+    processRelatedProjects(projectModel, resolution);
     return projectModel;
   }
 
-  private VersionStrategy getVersionStrategy(Model projectModel) {
+  /**
+   * Resolves the version strategy from the first project model exactly once. The thread that
+   * installs the future does the work while concurrent callers block on the same future.
+   */
+  private Resolution getResolution(Model projectModel) {
+    CompletableFuture<Resolution> future = resolutionRef.get();
+    if (future == null) {
+      CompletableFuture<Resolution> created = new CompletableFuture<>();
+      if (resolutionRef.compareAndSet(null, created)) {
+        try {
+          log.debug("Finding related projects for {} {}", projectModel.getArtifactId(), projectModel.getProjectDirectory());
+          ReactorIndex reactor = ReactorIndex.discover(projectModel.getPomFile().toPath(), projectModel.getModules());
+          log.debug("Found {} related projects", reactor.size());
+          created.complete(new Resolution(reactor, getVersionStrategy(projectModel, reactor)));
+        } catch (RuntimeException | Error e) {
+          created.completeExceptionally(e);
+          throw e;
+        }
+      }
+      future = resolutionRef.get();
+    }
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  VersionStrategy getVersionStrategy(Model projectModel, ReactorIndex reactor) {
     if (Util.useExistingRevision()) {
-      String revision = relatedPoms.stream()
-          .sorted(Comparator.comparing(p -> p.toString().length()))
-          .map(ExtensionUtil::readModelFromPom)
-          .map(m -> m.getProperties().getProperty(REVISION))
-          .filter(Objects::nonNull).findFirst()
+      String revision = ExtensionUtil.findRevision(reactor.getPoms())
           .orElseGet(() -> System.getProperty(REVISION));
       return StrategyFactory.getInstance(revision);
     }
@@ -148,28 +170,12 @@ public class GittleModelProcessor extends DefaultModelProcessor {
     return config;
   }
 
-  private static Set<Path> findRelatedProjects(Model model) {
-    Set<Path> relatedPoms = new HashSet<>();
-    Path basedir = model.getProjectDirectory().toPath();
-    log.debug("Finding related projects for {} {}", model.getArtifactId(), basedir);
-    // Add main project absolute path
-    relatedPoms.add(model.getPomFile().toPath());
-    // Find modules
-    List<Path> modulePoms = model.getModules().stream()
-        .map(module -> basedir.resolve(module).resolve("pom.xml"))
-        .toList();
-    log.debug(
-        "Modules found:{}",
-        modulePoms.stream().map(Path::toString).collect(Collectors.joining("\n", "\n", "")));
-    relatedPoms.addAll(modulePoms);
-    return relatedPoms;
-  }
-
-  private void processRelatedProjects(Model model, VersionStrategy strategy) {
+  private void processRelatedProjects(Model model, Resolution resolution) {
+    VersionStrategy strategy = resolution.strategy();
     String versionString = strategy.version();
 
     Path modelPomPath = Optional.ofNullable(model.getPomFile()).map(File::toPath).orElse(null);
-    if (modelPomPath == null || !relatedPoms.contains(modelPomPath)) {
+    if (!resolution.reactor().contains(modelPomPath)) {
       return;
     }
     log.debug("Processing model for {}", modelPomPath);
@@ -189,7 +195,10 @@ public class GittleModelProcessor extends DefaultModelProcessor {
     ExtensionUtil.replaceRevision(model, versionString);
 
     if (addProperties) {
-      Map<String, String> newProps = strategy.asMap();
+      // exporting a value the version did not need would run its phase for every build
+      Map<String, String> newProps = strategy.config().isExportAllProperties()
+          ? strategy.asMap()
+          : strategy.asResolvedMap();
       log.debug("Adding properties to project {}", buffer().mojo(projectGav).a(join(newProps)));
       model.getProperties().putAll(newProps);
     }
@@ -258,4 +267,10 @@ public class GittleModelProcessor extends DefaultModelProcessor {
     }
     return groupId;
   }
+
+  /**
+   * The version strategy with the reactor POMs it applies to.
+   */
+  private record Resolution(ReactorIndex reactor, VersionStrategy strategy) {
+  }
 }
@@ -0,0 +1,75 @@
+package org.emergent.gittle.maven.extension;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.maven.model.Model;
+import org.emergent.gittle.core.GittleException;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Raw POM models shared by the model processor and the lifecycle participant, so each POM is
+ * parsed at most once per build.
+ * <p>
+ * Entries are keyed by the absolute POM path and remember the modification time and size the
+ * file had when it was parsed, so a POM that changes on disk is parsed again. Callers always get
+ * their own copy of the model and may modify it freely. The cache is cleared when the session
+ * ends.
+ */
+@Slf4j
+@Named
+@Singleton
+public class ModelCache {
+
+  private final Map<Path, Entry> entries = new ConcurrentHashMap<>();
+
+  /**
+   * Returns a copy of the unprocessed model of {@code pomPath}, parsing the file only when it is
+   * not cached or changed since it was cached.
+   */
+  public Model get(Path pomPath) {
+    Path key = pomPath.toAbsolutePath().normalize();
+    Stamp stamp = stamp(key);
+    Entry entry = entries.get(key);
+    if (entry == null || !entry.stamp().equals(stamp)) {
+      log.debug("Parsing {}", key);
+      entry = new Entry(stamp, ExtensionUtil.readModelFromPom(key));
+      entries.put(key, entry);
+    }
+    return entry.model().clone();
+  }
+
+  /**
+   * Remembers {@code model}, which must be the unprocessed model just read from {@code pomPath}.
+   */
+  public void put(Path pomPath, Model model) {
+    Path key = pomPath.toAbsolutePath().normalize();
+    entries.put(key, new Entry(stamp(key), model.clone()));
+  }
+
+  public void clear() {
+    entries.clear();
+  }
+
+  private static Stamp stamp(Path path) {
+    try {
+      BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+      return new Stamp(attrs.lastModifiedTime(), attrs.size());
+    } catch (IOException e) {
+      throw new GittleException(e.getMessage(), e);
+    }
+  }
+
+  private record Stamp(FileTime lastModified, long size) {
+  }
+
+  private record Entry(Stamp stamp, Model model) {
+  }
+}
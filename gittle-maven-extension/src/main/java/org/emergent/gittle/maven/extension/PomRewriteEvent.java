@@ -0,0 +1,28 @@
+package org.emergent.gittle.maven.extension;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded for each gittle pom the lifecycle participant generates.
+ */
+@Name("org.emergent.gittle.PomRewrite")
+@Label("POM Rewrite")
+@Category("Gittle")
+@Description("Writes a project's POM with its revision replaced by the resolved version.")
+@StackTrace(false)
+final class PomRewriteEvent extends Event {
+
+  @Label("POM Path")
+  String pomPath;
+
+  @Label("Version")
+  String version;
+
+  @Label("Written")
+  boolean written;
+}
@@ -0,0 +1,86 @@
+package org.emergent.gittle.maven.extension;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable index of the POMs in a reactor: the root POM and, recursively, the POMs of all of its
+ * {@code <modules>}.
+ * <p>
+ * The tree is discovered one level at a time, reading the POMs of each level in parallel with
+ * {@link ExtensionUtil#readModules}, which stops at the end of the {@code <modules>} element.
+ * Paths are stored absolute and normalized in a hash set, so membership checks take constant time
+ * however many modules the reactor has.
+ */
+@Slf4j
+final class ReactorIndex {
+
+  private static final String POM_XML = "pom.xml";
+
+  private final Set<Path> poms;
+
+  private ReactorIndex(Set<Path> poms) {
+    this.poms = Set.copyOf(poms);
+  }
+
+  /**
+   * Discovers the reactor of {@code rootPom}, whose direct {@code modules} are already known.
+   */
+  static ReactorIndex discover(Path rootPom, List<String> modules) {
+    Path root = normalize(rootPom);
+    Set<Path> seen = new HashSet<>();
+    seen.add(root);
+    List<Path> level = resolveModules(root, modules);
+    while (!level.isEmpty()) {
+      level = level.stream()
+          .filter(seen::add)
+          .toList()
+          .parallelStream()
+          .flatMap(pom -> resolveModules(pom, ExtensionUtil.readModules(pom)).stream())
+          .toList();
+    }
+    log.debug("Discovered {} reactor poms under {}", seen.size(), root);
+    return new ReactorIndex(seen);
+  }
+
+  boolean contains(Path pom) {
+    return pom != null && poms.contains(normalize(pom));
+  }
+
+  Collection<Path> getPoms() {
+    return poms;
+  }
+
+  int size() {
+    return poms.size();
+  }
+
+  /**
+   * A module is a directory holding a {@code pom.xml}, or a path to the POM file itself.
+   */
+  private static List<Path> resolveModules(Path pom, List<String> modules) {
+    Path basedir = pom.getParent();
+    List<Path> resolved = new ArrayList<>(modules.size());
+    for (String module : modules) {
+      Path path = basedir.resolve(module.replace('\\', '/')).normalize();
+      Path modulePom = Files.isDirectory(path) ? path.resolve(POM_XML) : path;
+      if (Files.isRegularFile(modulePom)) {
+        resolved.add(modulePom);
+      } else {
+        log.debug("Skipping missing module pom {}", modulePom);
+      }
+    }
+    return resolved;
+  }
+
+  private static Path normalize(Path path) {
+    return path.toAbsolutePath().normalize();
+  }
+}
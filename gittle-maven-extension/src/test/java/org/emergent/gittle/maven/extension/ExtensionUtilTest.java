@@ -1,11 +1,20 @@
 package org.emergent.gittle.maven.extension;
 
+import org.apache.maven.model.Model;
 import org.codehaus.plexus.util.xml.Xpp3Dom;
 import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
 import org.emergent.gittle.core.Config;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -19,11 +28,86 @@ public class ExtensionUtilTest {
           <releaseBranchRegex>^(release|stable)$</releaseBranchRegex>
           <tagNameRegex>v?([0-9]+\\.[0-9]+\\.[0-9]+)</tagNameRegex>
           <versionPattern>%t(-%B)(-%C)(-%S)(+%H)(.%D)</versionPattern>
+          <cacheEnabled>true</cacheEnabled>
+          <firstParent>false</firstParent>
+          <maxCommits>0</maxCommits>
+          <maxWalkMillis>0</maxWalkMillis>
+          <dirtyCheck>CONTENT</dirtyCheck>
+          <backend>JGIT</backend>
+          <nativeTimeoutMillis>5000</nativeTimeoutMillis>
+          <exportAllProperties>false</exportAllProperties>
         </configuration>
         """));
     assertThat(ExtensionUtil.toXml(getConf())).isNotNull().isEqualTo(expected);
   }
 
+  @Test
+  void writeModelToPom_SkipsIdenticalContent(@TempDir Path tempDir) throws Exception {
+    Model model = new Model();
+    model.setModelVersion("4.0.0");
+    model.setGroupId("org.emergent.test");
+    model.setArtifactId("sample");
+    model.setVersion("1.2.3");
+    Path pom = tempDir.resolve("pom.xml");
+    assertThat(ExtensionUtil.writeModelToPom(model, pom)).isTrue();
+    FileTime stale = FileTime.fromMillis(0);
+    Files.setLastModifiedTime(pom, stale);
+
+    assertThat(ExtensionUtil.writeModelToPom(model, pom)).isFalse();
+    assertThat(Files.getLastModifiedTime(pom)).isEqualTo(stale);
+
+    model.setVersion("1.2.4");
+    assertThat(ExtensionUtil.writeModelToPom(model, pom)).isTrue();
+    assertThat(ExtensionUtil.readModelFromPom(pom).getVersion()).isEqualTo("1.2.4");
+  }
+
+  @Test
+  void readRevision_StopsAtProperties(@TempDir Path tempDir) throws Exception {
+    Path pom = tempDir.resolve("pom.xml");
+    Files.writeString(pom, """
+        <project>
+          <profiles><profile><properties><revision>profiled</revision></properties></profile></profiles>
+          <properties>
+            <other>x</other>
+            <revision> 1.2.3 </revision>
+          </properties>
+          <this-is-never-read>
+        """);
+    assertThat(ExtensionUtil.readRevision(pom)).contains("1.2.3");
+
+    Files.writeString(pom, "<project><properties><other>x</other></properties></project>");
+    assertThat(ExtensionUtil.readRevision(pom)).isEmpty();
+  }
+
+  @Test
+  void findRevision_PrefersShortestPath(@TempDir Path tempDir) throws Exception {
+    Path root = tempDir.resolve("pom.xml");
+    Path child = Files.createDirectories(tempDir.resolve("child")).resolve("pom.xml");
+    Path grandchild = Files.createDirectories(tempDir.resolve("child/grandchild")).resolve("pom.xml");
+    Files.writeString(root, "<project/>");
+    Files.writeString(child, "<project><properties><revision>2.0.0</revision></properties></project>");
+    Files.writeString(grandchild, "<project><properties><revision>3.0.0</revision></properties></project>");
+    assertThat(ExtensionUtil.findRevision(List.of(grandchild, root, child))).contains("2.0.0");
+    assertThat(ExtensionUtil.findRevision(List.of(root))).isEmpty();
+  }
+
+  @Test
+  void readRevision_Concurrently(@TempDir Path tempDir) throws Exception {
+    List<Path> poms = new ArrayList<>();
+    for (int i = 0; i < 64; i++) {
+      Path pom = Files.createDirectories(tempDir.resolve("m" + i)).resolve("pom.xml");
+      Files.writeString(pom, "<project><properties><revision>1.0." + i + "</revision></properties></project>");
+      poms.add(pom);
+    }
+    for (int round = 0; round < 10; round++) {
+      List<String> revisions = poms.parallelStream()
+          .map(pom -> ExtensionUtil.readRevision(pom).orElse(null))
+          .collect(Collectors.toList());
+      assertThat(revisions).containsExactlyElementsOf(
+          IntStream.range(0, poms.size()).mapToObj(i -> "1.0." + i).collect(Collectors.toList()));
+    }
+  }
+
   private static Config getConf() {
     return Config.builder()
         .setNewVersion("0.1.2")
@@ -0,0 +1,129 @@
+package org.emergent.gittle.maven.extension;
+
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.RepositorySystemSession;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.emergent.gittle.core.Util.GITTLE_POM_XML;
+
+public class GittleMavenLifecycleParticipantTest {
+
+  private static final String VERSION = "1.2.3";
+  private static final int MODULES = 8;
+  // more than one, so the poms are generated on the pool whatever the host's processor count
+  private static final int THREADS = 4;
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void writesEveryModule() throws Exception {
+    List<MavenProject> projects = createReactor();
+
+    new GittleMavenLifecycleParticipant(new ModelCache(), THREADS).afterProjectsRead(createSession(projects));
+
+    for (MavenProject project : projects) {
+      assertWritten(project);
+    }
+  }
+
+  @Test
+  void failedModuleDoesNotStopOthers() throws Exception {
+    List<MavenProject> projects = createReactor();
+    MavenProject broken = projects.get(MODULES / 2);
+    Path brokenPom = broken.getFile().toPath();
+    Files.writeString(brokenPom, "<project><parent>");
+
+    new GittleMavenLifecycleParticipant(new ModelCache(), THREADS).afterProjectsRead(createSession(projects));
+
+    assertThat(broken.getFile().toPath()).isEqualTo(brokenPom);
+    assertThat(brokenPom.resolveSibling(GITTLE_POM_XML)).doesNotExist();
+    for (MavenProject project : projects) {
+      if (project != broken) {
+        assertWritten(project);
+      }
+    }
+  }
+
+  private static void assertWritten(MavenProject project) {
+    Path gittlePom = project.getFile().toPath();
+    assertThat(gittlePom.getFileName()).hasToString(GITTLE_POM_XML);
+    Model written = ExtensionUtil.readModelFromPom(gittlePom);
+    assertThat(written.getArtifactId()).isEqualTo(project.getArtifactId());
+    if (written.getParent() != null) {
+      assertThat(written.getParent().getVersion()).isEqualTo(VERSION);
+    } else {
+      assertThat(written.getVersion()).isEqualTo(VERSION);
+    }
+  }
+
+  /**
+   * Writes a parent pom and its modules, all versioned by {@code ${revision}}, and returns their
+   * projects as the reactor would after resolving the revision.
+   */
+  private List<MavenProject> createReactor() throws Exception {
+    Model root = new Model();
+    root.setModelVersion("4.0.0");
+    root.setGroupId("org.emergent.test");
+    root.setArtifactId("parent");
+    root.setVersion(ExtensionUtil.$_REVISION);
+    root.setPackaging("pom");
+    root.getProperties().setProperty(ExtensionUtil.REVISION, "0.0.1-SNAPSHOT");
+
+    for (int i = 0; i < MODULES; i++) {
+      root.addModule("module-" + i);
+    }
+
+    List<MavenProject> projects = new ArrayList<>();
+    projects.add(createProject(root, tempDir));
+    for (String name : root.getModules()) {
+      Parent parent = new Parent();
+      parent.setGroupId(root.getGroupId());
+      parent.setArtifactId(root.getArtifactId());
+      parent.setVersion(ExtensionUtil.$_REVISION);
+      Model module = new Model();
+      module.setModelVersion("4.0.0");
+      module.setParent(parent);
+      module.setArtifactId(name);
+      projects.add(createProject(module, Files.createDirectories(tempDir.resolve(name))));
+    }
+    return projects;
+  }
+
+  private static MavenProject createProject(Model raw, Path dir) {
+    Path pom = dir.resolve("pom.xml");
+    ExtensionUtil.writeModelToPom(raw, pom);
+    Model resolved = raw.clone();
+    resolved.setPomFile(pom.toFile());
+    resolved.getProperties().setProperty(ExtensionUtil.REVISION, VERSION);
+    if (resolved.getParent() != null) {
+      resolved.getParent().setVersion(VERSION);
+      resolved.setGroupId(resolved.getParent().getGroupId());
+    } else {
+      resolved.setVersion(VERSION);
+    }
+    MavenProject project = new MavenProject(resolved);
+    project.setFile(pom.toFile());
+    return project;
+  }
+
+  private static MavenSession createSession(List<MavenProject> projects) {
+    MavenSession session = new MavenSession(null, (RepositorySystemSession) null,
+        new DefaultMavenExecutionRequest(), new DefaultMavenExecutionResult());
+    session.setProjects(projects);
+    session.setAllProjects(projects);
+    return session;
+  }
+}
@@ -0,0 +1,111 @@
+package org.emergent.gittle.maven.extension;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.building.FileModelSource;
+import org.apache.maven.model.building.ModelProcessor;
+import org.apache.maven.model.io.DefaultModelReader;
+import org.emergent.gittle.core.strategy.StrategyFactory;
+import org.emergent.gittle.core.strategy.VersionStrategy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GittleModelProcessorTest {
+
+  private static final int THREADS = 32;
+  private static final int READS = 400;
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void concurrentReadsResolveOnce() throws Exception {
+    Path root = writePom(tempDir, "root", List.of("a", "b"));
+    List<Path> modules = List.of(writePom(tempDir.resolve("a"), "a", List.of()), writePom(tempDir.resolve("b"), "b", List.of()));
+
+    AtomicInteger resolutions = new AtomicInteger();
+    GittleModelProcessor processor = new GittleModelProcessor(new ModelCache()) {
+      @Override
+      VersionStrategy getVersionStrategy(Model projectModel, ReactorIndex reactor) {
+        resolutions.incrementAndGet();
+        try {
+          // widen the window in which other threads arrive while the first one resolves
+          Thread.sleep(100);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return StrategyFactory.getInstance("1.2.3");
+      }
+    };
+    processor.setModelReader(new DefaultModelReader());
+
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      // every thread races to be the first to read the root pom, then modules are read concurrently
+      assertThat(readAll(executor, processor, List.of(root))).allMatch(m -> "1.2.3".equals(m.getVersion()));
+      assertThat(readAll(executor, processor, modules))
+          .allMatch(m -> Optional.ofNullable(m.getParent()).map(Parent::getVersion).filter("1.2.3"::equals).isPresent());
+    } finally {
+      executor.shutdownNow();
+    }
+    assertThat(resolutions).hasValue(1);
+  }
+
+  private static List<Model> readAll(ExecutorService executor, ModelProcessor processor, List<Path> poms) throws Exception {
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<Model>> futures = new ArrayList<>();
+    for (int i = 0; i < READS; i++) {
+      Path pom = poms.get(i % poms.size());
+      futures.add(executor.submit(() -> {
+        start.await();
+        try (InputStream in = Files.newInputStream(pom)) {
+          return processor.read(in, Map.of(ModelProcessor.SOURCE, new FileModelSource(pom.toFile())));
+        }
+      }));
+    }
+    start.countDown();
+    List<Model> models = new ArrayList<>();
+    for (Future<Model> future : futures) {
+      models.add(future.get(30, TimeUnit.SECONDS));
+    }
+    return models;
+  }
+
+  private static Path writePom(Path dir, String artifactId, List<String> modules) throws Exception {
+    Files.createDirectories(dir);
+    Model model = new Model();
+    model.setModelVersion("4.0.0");
+    model.setArtifactId(artifactId);
+    if (modules.isEmpty()) {
+      Parent parent = new Parent();
+      parent.setGroupId("org.emergent.test");
+      parent.setArtifactId("root");
+      parent.setVersion(ExtensionUtil.$_REVISION);
+      model.setParent(parent);
+    } else {
+      model.setGroupId("org.emergent.test");
+      model.setVersion(ExtensionUtil.$_REVISION);
+      model.setPackaging("pom");
+      model.setModules(modules);
+    }
+    Path pom = dir.resolve("pom.xml");
+    ExtensionUtil.writeModelToPom(model, pom);
+    return pom;
+  }
+}
@@ -0,0 +1,54 @@
+package org.emergent.gittle.maven.extension;
+
+import org.apache.maven.model.Model;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ModelCacheTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void getReturnsCopies() {
+    Path pom = writePom("1.0.0");
+    ModelCache cache = new ModelCache();
+    Model first = cache.get(pom);
+    first.setVersion("changed");
+    assertThat(cache.get(pom).getVersion()).isEqualTo("1.0.0");
+  }
+
+  @Test
+  void putIsUsedUntilFileChanges() throws Exception {
+    Path pom = writePom("1.0.0");
+    Files.setLastModifiedTime(pom, FileTime.fromMillis(1000));
+    ModelCache cache = new ModelCache();
+    Model parsed = ExtensionUtil.readModelFromPom(pom);
+    parsed.setArtifactId("from-processor");
+    cache.put(pom, parsed);
+    assertThat(cache.get(pom).getArtifactId()).isEqualTo("from-processor");
+
+    writePom("2.0.0");
+    Files.setLastModifiedTime(pom, FileTime.fromMillis(2000));
+    Model reparsed = cache.get(pom);
+    assertThat(reparsed.getArtifactId()).isEqualTo("sample");
+    assertThat(reparsed.getVersion()).isEqualTo("2.0.0");
+  }
+
+  private Path writePom(String version) {
+    Model model = new Model();
+    model.setModelVersion("4.0.0");
+    model.setGroupId("org.emergent.test");
+    model.setArtifactId("sample");
+    model.setVersion(version);
+    Path pom = tempDir.resolve("pom.xml");
+    ExtensionUtil.writeModelToPom(model, pom);
+    return pom;
+  }
+}
@@ -0,0 +1,62 @@
+package org.emergent.gittle.maven.extension;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReactorIndexTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void discoversNestedModules() throws Exception {
+    Path root = writePom(tempDir, "pom.xml", "apps", "libs/core", "alt/custom-pom.xml", "missing");
+    Path apps = writePom(tempDir.resolve("apps"), "pom.xml", "web", "../libs/core");
+    Path web = writePom(tempDir.resolve("apps/web"), "pom.xml");
+    Path core = writePom(tempDir.resolve("libs/core"), "pom.xml");
+    Path custom = writePom(tempDir.resolve("alt"), "custom-pom.xml", "deep/er");
+    Path deeper = writePom(tempDir.resolve("alt/deep/er"), "pom.xml");
+    Path unrelated = writePom(tempDir.resolve("unrelated"), "pom.xml");
+
+    ReactorIndex index = ReactorIndex.discover(root, ExtensionUtil.readModules(root));
+    assertThat(index.getPoms()).containsExactlyInAnyOrder(root, apps, web, core, custom, deeper);
+    assertThat(index.contains(tempDir.resolve("apps/../apps/web/pom.xml"))).isTrue();
+    assertThat(index.contains(unrelated)).isFalse();
+    assertThat(index.contains(null)).isFalse();
+  }
+
+  @Test
+  void readModulesIgnoresProfilesAndNestedElements() throws Exception {
+    Path pom = tempDir.resolve("pom.xml");
+    Files.writeString(pom, """
+        <?xml version="1.0" encoding="UTF-8"?>
+        <project xmlns="http://maven.apache.org/POM/4.0.0">
+          <modelVersion>4.0.0</modelVersion>
+          <build><plugins><plugin><configuration><modules><module>no</module></modules></configuration></plugin></plugins></build>
+          <modules>
+            <module> one </module>
+            <!-- comment -->
+            <module>two/three</module>
+          </modules>
+          <profiles><profile><modules><module>profiled</module></modules></profile></profiles>
+        </project>
+        """);
+    assertThat(ExtensionUtil.readModules(pom)).containsExactly("one", "two/three");
+  }
+
+  private static Path writePom(Path dir, String fileName, String... modules) throws Exception {
+    Files.createDirectories(dir);
+    StringBuilder sb = new StringBuilder("<project><modelVersion>4.0.0</modelVersion><modules>");
+    List.of(modules).forEach(m -> sb.append("<module>").append(m).append("</module>"));
+    sb.append("</modules></project>");
+    Path pom = dir.resolve(fileName);
+    Files.writeString(pom, sb);
+    return pom.toAbsolutePath().normalize();
+  }
+}
@@ -0,0 +1,45 @@
+package org.emergent.gittle.maven.plugin;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.emergent.gittle.core.strategy.VersionHistory;
+
+import java.io.File;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Writes the version of every commit in a range to a file, one tab separated
+ * {@code hash version tagVersion commits} line per commit, each the version a build of that commit
+ * resolves to.
+ */
+@Getter
+@Setter
+@Mojo(name = "history")
+public class HistoryMojo extends AbstractGittleMojo {
+
+  @Parameter(name = "outputFile", defaultValue = "${project.build.directory}/gittle-history.tsv", property = "gittle.history.outputFile")
+  private File outputFile;
+
+  @Parameter(name = "head", defaultValue = "HEAD", property = "gittle.history.head")
+  private String head = "HEAD";
+
+  @Parameter(name = "since", property = "gittle.history.since")
+  private String since;
+
+  @Override
+  protected void execute0() throws Exception {
+    if (skip) {
+      return;
+    }
+    Files.createDirectories(outputFile.getAbsoluteFile().getParentFile().toPath());
+    int count;
+    try (Writer writer = Files.newBufferedWriter(outputFile.toPath(), StandardCharsets.UTF_8)) {
+      count = VersionHistory.write(getConfig(), mavenProject.getBasedir(), head, since, writer);
+    }
+    getLog().info(String.format("Wrote %d versions to %s", count, outputFile));
+  }
+}
@@ -0,0 +1,28 @@
+package org.emergent.gittle.maven.plugin;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.emergent.gittle.core.strategy.VersionIndex;
+
+/**
+ * Builds or incrementally updates the commit to version index under {@code <gitDir>/gittle}.
+ */
+@Getter
+@Setter
+@Mojo(name = "index")
+public class IndexMojo extends AbstractGittleMojo {
+
+  @Parameter(name = "head", defaultValue = "HEAD", property = "gittle.index.head")
+  private String head = "HEAD";
+
+  @Override
+  protected void execute0() {
+    if (skip) {
+      return;
+    }
+    int added = VersionIndex.update(getConfig(), mavenProject.getBasedir(), head);
+    getLog().info(String.format("Added %d commits to the version index", added));
+  }
+}
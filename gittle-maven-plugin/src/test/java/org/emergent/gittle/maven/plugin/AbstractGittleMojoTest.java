@@ -18,7 +18,7 @@ public class AbstractGittleMojoTest {
 
     {
       mavenProject = new MavenProject();
-      mavenProject.setFile(new File("my/pom.xml"));
+      mavenProject.setFile(new File("target/test-classes/project-to-test/pom.xml"));
     }
 
     @Override
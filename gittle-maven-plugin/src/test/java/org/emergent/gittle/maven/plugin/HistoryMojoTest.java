@@ -0,0 +1,39 @@
+package org.emergent.gittle.maven.plugin;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HistoryMojoTest extends AbstractMojoTest {
+
+  @TempDir
+  File tempDir;
+
+  @Test
+  public void readDefaultParameters() throws Exception {
+    File pom = new File("target/test-classes/project-to-test/");
+    assertThat(pom).as("POM file").isNotNull().exists();
+    HistoryMojo history = (HistoryMojo) rule.lookupConfiguredMojo(pom, "history");
+    assertThat(history).isNotNull();
+    assertThat(history.getHead()).isEqualTo("HEAD");
+    assertThat(history.getSince()).isNull();
+    assertThat(history.getOutputFile()).hasName("gittle-history.tsv");
+  }
+
+  @Test
+  public void writesHistory() throws Exception {
+    File pom = new File("target/test-classes/project-to-test/");
+    HistoryMojo history = (HistoryMojo) rule.lookupConfiguredMojo(pom, "history");
+    File output = new File(tempDir, "history.tsv");
+    history.setOutputFile(output);
+    history.execute();
+    List<String> lines = Files.readAllLines(output.toPath());
+    assertThat(lines).isNotEmpty()
+        .allMatch(line -> line.split("\t").length == 4);
+  }
+}
@@ -0,0 +1,85 @@
+package org.emergent.gittle.maven.plugin;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.emergent.gittle.core.Config;
+import org.emergent.gittle.core.Resolved;
+import org.emergent.gittle.core.git.HistoryWalker;
+import org.emergent.gittle.core.git.TagProvider;
+import org.emergent.gittle.core.strategy.VersionIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IndexMojoTest extends AbstractMojoTest {
+
+  @TempDir
+  File tempDir;
+
+  @Test
+  public void readDefaultParameters() throws Exception {
+    File pom = new File("target/test-classes/project-to-test/");
+    assertThat(pom).as("POM file").isNotNull().exists();
+    IndexMojo index = (IndexMojo) rule.lookupConfiguredMojo(pom, "index");
+    assertThat(index).isNotNull();
+    assertThat(index.getHead()).isEqualTo("HEAD");
+  }
+
+  @Test
+  public void buildsAndUpdatesIndex() throws Exception {
+    Files.copy(Path.of("target/test-classes/project-to-test/pom.xml"), tempDir.toPath().resolve("pom.xml"));
+    try (Git git = Git.init().setInitialBranch("main").setDirectory(tempDir).call()) {
+      commit(git, "initial");
+      git.tag().setName("v1.0.0").setAnnotated(false).call();
+      commit(git, "second");
+
+      Config config = execute();
+      assertMatchesHistory(config, git, 2);
+
+      commit(git, "third");
+      commit(git, "fourth");
+      git.tag().setName("v1.1.0").setAnnotated(false).call();
+      commit(git, "fifth");
+      config = execute();
+      // the new tag changes the tag digest, so the index is rebuilt rather than extended
+      assertMatchesHistory(config, git, 5);
+
+      commit(git, "sixth");
+      config = execute();
+      assertMatchesHistory(config, git, 6);
+      assertThat(VersionIndex.open(config, git.getRepository()).orElseThrow().getTips()).hasSize(1);
+    }
+  }
+
+  private Config execute() throws Exception {
+    IndexMojo index = (IndexMojo) rule.lookupConfiguredMojo(tempDir, "index");
+    index.execute();
+    return index.getConfig();
+  }
+
+  private static void assertMatchesHistory(Config config, Git git, int size) throws Exception {
+    VersionIndex index = VersionIndex.open(config, git.getRepository()).orElseThrow();
+    assertThat(index.size()).isEqualTo(size);
+    HistoryWalker walker = new HistoryWalker(git.getRepository(), new TagProvider(config.getTagNameRegex(), git), config);
+    List<RevCommit> commits = StreamSupport.stream(git.log().call().spliterator(), false).toList();
+    assertThat(commits).hasSize(size);
+    for (RevCommit commit : commits) {
+      Resolved expected = walker.walk(commit);
+      VersionIndex.Record record = index.lookup(commit).orElseThrow();
+      assertThat(record.tagVersion()).as(commit.getName()).isEqualTo(expected.getTagVersion());
+      assertThat(record.commits()).as(commit.getName()).isEqualTo(expected.getCommits());
+    }
+  }
+
+  private static void commit(Git git, String message) throws Exception {
+    git.commit().setSign(false).setMessage(message).setAllowEmpty(true)
+        .setAuthor("gittle", "gittle@example.com").setCommitter("gittle", "gittle@example.com").call();
+  }
+}